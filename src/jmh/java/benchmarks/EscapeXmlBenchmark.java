@@ -0,0 +1,54 @@
+package benchmarks;
+
+import http.PayloadEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.TestUtils;
+
+/**
+ * Escaping done by the logging filter on every request and response body: a typical XML booking,
+ * and a 500 KB body without markup as sent by the resilience features.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EscapeXmlBenchmark {
+
+  @Param({"xmlBooking", "largePlain"})
+  public String body;
+
+  private String text;
+
+  @Setup
+  public void setUp() throws Exception {
+    text =
+        switch (body) {
+          case "xmlBooking" ->
+              new String(
+                  PayloadEncoder.encode(
+                      TestUtils.createValidBookingPayload(), "text/xml; charset=UTF-8"),
+                  StandardCharsets.UTF_8);
+          case "largePlain" -> TestUtils.generateLargeString(500 * 1024);
+          default -> throw new IllegalArgumentException("Unknown body: " + body);
+        };
+  }
+
+  @Benchmark
+  public String escapeXml() {
+    return TestUtils.escapeXml(text);
+  }
+}
@@ -0,0 +1,36 @@
+package benchmarks;
+
+import http.PayloadEncoder;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.TestUtils;
+
+/** Request body serialization done by every {@code I <method> payload to} step. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadEncoderBenchmark {
+
+  @Param({"application/json", "text/xml", "application/x-www-form-urlencoded"})
+  public String contentType;
+
+  private final Map<String, Object> payload = TestUtils.createValidBookingPayload();
+
+  @Benchmark
+  public byte[] encode() throws Exception {
+    return PayloadEncoder.encode(payload, contentType);
+  }
+}
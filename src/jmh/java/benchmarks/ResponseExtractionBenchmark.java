@@ -0,0 +1,70 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import http.JsonExtractor;
+import io.restassured.path.json.JsonPath;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.TestUtils;
+
+/**
+ * Reading {@code bookingid} from a created-booking response, as the booking steps do: with
+ * RestAssured's Groovy JsonPath, a full Jackson tree, and the streaming extractor. The large body
+ * carries a 500 KB {@code additionalneeds} after the id.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseExtractionBenchmark {
+
+  @Param({"booking", "largeBooking"})
+  public String body;
+
+  private byte[] json;
+  private String text;
+
+  @Setup
+  public void setUp() throws Exception {
+    Map<String, Object> booking =
+        switch (body) {
+          case "booking" -> TestUtils.createValidBookingPayload();
+          case "largeBooking" ->
+              TestUtils.createValidBookingPayload(
+                  Map.of("additionalneeds", TestUtils.generateLargeString(500 * 1024)));
+          default -> throw new IllegalArgumentException("Unknown body: " + body);
+        };
+    json = new ObjectMapper().writeValueAsBytes(Map.of("bookingid", 1, "booking", booking));
+    text = new String(json, StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String restAssuredJsonPath() {
+    return new JsonPath(text).getString("bookingid");
+  }
+
+  @Benchmark
+  public String jacksonTree() {
+    return JsonExtractor.readTree(json).get("bookingid").asText();
+  }
+
+  @Benchmark
+  public Object streamingExtract() {
+    return JsonExtractor.extract(json, List.of("bookingid")).get("bookingid");
+  }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.TestUtils;
+
+/** Payload building helpers called by every booking and auth step. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TestUtilsBenchmark {
+
+  private final Map<String, Object> overrides =
+      Map.of(
+          "firstname", "Jane",
+          "bookingdates.checkin", "2025-01-01",
+          "bookingdates.checkout", "2025-01-10");
+
+  /** One value per branch of parseValue, in the order they are checked. */
+  @State(Scope.Benchmark)
+  public static class RawValue {
+    @Param({"<missing>", "<valid>", "\"quoted\"", "true", "12.5", "111", "Breakfast"})
+    public String raw;
+  }
+
+  @Benchmark
+  public Object parseValue(RawValue value) {
+    return TestUtils.parseValue(value.raw, "username");
+  }
+
+  @Benchmark
+  public Map<String, Object> createValidBookingPayload() {
+    return TestUtils.createValidBookingPayload();
+  }
+
+  @Benchmark
+  public Map<String, Object> createValidBookingPayloadWithOverrides() {
+    return TestUtils.createValidBookingPayload(overrides);
+  }
+}
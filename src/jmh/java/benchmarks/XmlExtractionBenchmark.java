@@ -0,0 +1,71 @@
+package benchmarks;
+
+import http.XmlExtractor;
+import io.restassured.path.xml.XmlPath;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading the booking fields of an XML created-booking response: one GPath lookup per field on a
+ * Groovy XmlPath, as the XML booking step used to, against a single StAX pass.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlExtractionBenchmark {
+
+  private static final List<String> FIELDS =
+      List.of(
+          "firstname",
+          "lastname",
+          "totalprice",
+          "depositpaid",
+          "bookingdates.checkin",
+          "bookingdates.checkout",
+          "additionalneeds");
+
+  private String text;
+  private byte[] xml;
+
+  @Setup
+  public void setUp() {
+    text =
+        "<?xml version='1.0'?><created-booking><bookingid>1</bookingid><booking>"
+            + "<firstname>Jim</firstname><lastname>Brown</lastname><totalprice>111</totalprice>"
+            + "<depositpaid>true</depositpaid><bookingdates><checkin>2024-01-01</checkin>"
+            + "<checkout>2024-01-10</checkout></bookingdates>"
+            + "<additionalneeds>Breakfast</additionalneeds></booking></created-booking>";
+    xml = text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Map<String, Object> xmlPathPerField() {
+    XmlPath path = new XmlPath(text);
+    Map<String, Object> booking = new HashMap<>();
+    for (String field : FIELDS) {
+      booking.put(field, path.getString("created-booking.booking." + field));
+    }
+    return booking;
+  }
+
+  @Benchmark
+  public Map<String, Object> staxOnePass() {
+    return XmlExtractor.extract(xml, List.of("created-booking.booking.*"));
+  }
+}
@@ -0,0 +1,123 @@
+package auth;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import http.HttpTransport;
+import http.JsonExtractor;
+import http.OutgoingRequest;
+import http.PayloadEncoder;
+import http.RequestLimiter;
+import io.restassured.response.Response;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import utils.ConfigReader;
+import utils.RequestLoggingFilter;
+
+/**
+ * Process-wide cache of auth tokens keyed by base URL and username, so scenarios that only need to
+ * be authenticated do not each POST {@code /auth}. A token is reused until it is {@code
+ * auth.token.ttl.seconds} old. When it is missing or expired, the first caller fetches a new one
+ * and concurrent callers wait for that same request (single flight). A failed fetch is reported to
+ * everyone waiting on it but not cached, so the next caller tries again.
+ */
+public final class TokenCache {
+
+  private static final TokenCache INSTANCE = new TokenCache();
+
+  private final Map<Key, CompletableFuture<Token>> tokens = new ConcurrentHashMap<>();
+  private final Duration ttl = Duration.ofSeconds(ConfigReader.getInt("auth.token.ttl.seconds"));
+
+  private TokenCache() {}
+
+  public static TokenCache get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a valid token for {@code username}, fetching one if needed.
+   *
+   * @param logger logs the {@code /auth} exchange if this call performs it, or {@code null}
+   */
+  public Token token(
+      String baseUrl, String username, String password, RequestLoggingFilter logger) {
+    Key key = new Key(baseUrl, username);
+    while (true) {
+      CompletableFuture<Token> current = tokens.get(key);
+      if (current != null && (!current.isDone() || isValid(current))) return await(current);
+
+      CompletableFuture<Token> fetch = new CompletableFuture<>();
+      boolean leader =
+          current == null
+              ? tokens.putIfAbsent(key, fetch) == null
+              : tokens.replace(key, current, fetch);
+      // Another caller started the refresh first; wait for theirs
+      if (!leader) continue;
+
+      try {
+        fetch.complete(fetch(baseUrl, username, password, logger));
+      } catch (RuntimeException e) {
+        tokens.remove(key, fetch);
+        fetch.completeExceptionally(e);
+      }
+      return await(fetch);
+    }
+  }
+
+  private boolean isValid(CompletableFuture<Token> future) {
+    return !future.isCompletedExceptionally() && future.join().age().compareTo(ttl) < 0;
+  }
+
+  private static Token await(CompletableFuture<Token> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) throw cause;
+      throw e;
+    }
+  }
+
+  private static Token fetch(
+      String baseUrl, String username, String password, RequestLoggingFilter logger) {
+    Map<String, Object> credentials = new LinkedHashMap<>();
+    credentials.put("username", username);
+    credentials.put("password", password);
+    byte[] body;
+    try {
+      body = PayloadEncoder.encode(credentials, "application/json");
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not encode credentials", e);
+    }
+
+    OutgoingRequest request =
+        new OutgoingRequest(
+            "POST", baseUrl + "/auth", Map.of("Content-Type", "application/json"), body);
+    Response response =
+        RequestLimiter.get().send(HttpTransport.configured(), request, logger).orThrow();
+    // The service answers bad credentials with 200 and a "reason" instead of a token
+    Object token =
+        response.statusCode() == 200
+            ? JsonExtractor.extract(response.asByteArray(), List.of("token")).get("token")
+            : null;
+    if (!(token instanceof String value) || value.isEmpty()) {
+      throw new IllegalStateException(
+          String.format(
+              "Authentication as %s failed: HTTP %d %s",
+              username, response.statusCode(), response.asString()));
+    }
+    return new Token(value, System.nanoTime());
+  }
+
+  private record Key(String baseUrl, String username) {}
+
+  /** A token and the time it was issued, as {@link System#nanoTime()}. */
+  public record Token(String value, long issuedNanos) {
+
+    public Duration age() {
+      return Duration.ofNanos(System.nanoTime() - issuedNanos);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package baseline;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Append-only store of per-scenario latency figures, one JSON line per passing scenario run. Each
+ * key keeps a bounded window of its most recent runs; a new run is compared against the median of
+ * that window before it is appended.
+ *
+ * <p>The file is read once when the store is opened and every run only appends a line, so updates
+ * stay cheap however long the history. Once the file holds more than twice the lines the windows
+ * need, it is compacted on close by rewriting the retained windows to a temporary file and
+ * atomically replacing the original. Scenarios running in parallel share the store, so all access
+ * is synchronized.
+ */
+public final class LatencyBaseline implements AutoCloseable {
+
+  // Fewer previous runs than this are too noisy to judge a regression
+  static final int MIN_RUNS = 3;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Path file;
+  private final int window;
+  private final Map<Key, Deque<Run>> runs = new HashMap<>();
+  private long lines;
+
+  private LatencyBaseline(Path file, int window) {
+    this.file = file;
+    this.window = window;
+  }
+
+  /** Opens the store at {@code file}, creating it on the first append if it does not exist. */
+  public static LatencyBaseline open(Path file, int window) {
+    LatencyBaseline baseline = new LatencyBaseline(file, window);
+    baseline.load();
+    return baseline;
+  }
+
+  private void load() {
+    if (!Files.exists(file)) return;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) continue;
+        lines++;
+        try {
+          JsonNode node = MAPPER.readTree(line);
+          retain(Key.fromJson(node.get("key")), Run.fromJson(node));
+        } catch (IOException | RuntimeException e) {
+          // A torn last line from an interrupted run must not invalidate the whole history
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read latency baseline " + file, e);
+    }
+  }
+
+  private void retain(Key key, Run run) {
+    Deque<Run> history = runs.computeIfAbsent(key, k -> new ArrayDeque<>());
+    history.addLast(run);
+    while (history.size() > window) history.removeFirst();
+  }
+
+  /**
+   * Compares {@code current} against the recorded window of {@code key}. Empty if there are fewer
+   * than {@link #MIN_RUNS} previous runs.
+   */
+  public synchronized Optional<Comparison> compare(Key key, Run current) {
+    Deque<Run> history = runs.get(key);
+    if (history == null || history.size() < MIN_RUNS) return Optional.empty();
+    double baselineMedian = median(history.stream().mapToDouble(Run::medianMs).toArray());
+    double baselineP95 = median(history.stream().mapToDouble(Run::p95Ms).toArray());
+    return Optional.of(new Comparison(current, baselineMedian, baselineP95, history.size()));
+  }
+
+  /** Appends {@code run} to the file and to the in-memory window of {@code key}. */
+  public synchronized void append(Key key, Run run) {
+    try {
+      if (file.getParent() != null) Files.createDirectories(file.getParent());
+      Files.writeString(
+          file,
+          toLine(key, run) + "\n",
+          StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not append to latency baseline " + file, e);
+    }
+    lines++;
+    retain(key, run);
+  }
+
+  /** Compacts the file if the retained windows make up less than half of it. */
+  @Override
+  public synchronized void close() {
+    long retained = runs.values().stream().mapToLong(Deque::size).sum();
+    if (lines <= 2 * retained) return;
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for (Map.Entry<Key, Deque<Run>> entry : runs.entrySet()) {
+        for (Run run : entry.getValue()) {
+          writer.write(toLine(entry.getKey(), run));
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not compact latency baseline " + file, e);
+    }
+    try {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      lines = retained;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not compact latency baseline " + file, e);
+    }
+  }
+
+  private static String toLine(Key key, Run run) throws IOException {
+    Map<String, Object> line = new LinkedHashMap<>();
+    line.put("key", key);
+    line.put("at", run.at().toString());
+    line.put("samples", run.samples());
+    line.put("medianMs", run.medianMs());
+    line.put("p95Ms", run.p95Ms());
+    return MAPPER.writeValueAsString(line);
+  }
+
+  static double median(double[] values) {
+    return percentile(values, 50);
+  }
+
+  /** Nearest-rank percentile (0-100) of {@code values}. */
+  static double percentile(double[] values, double percentile) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+  }
+
+  /**
+   * Identifies a scenario run: feature file, scenario name, line of the scenario or example row,
+   * and the target the requests were sent to.
+   */
+  public record Key(String feature, String scenario, int line, String target) {
+
+    static Key fromJson(JsonNode node) {
+      return new Key(
+          node.get("feature").asText(),
+          node.get("scenario").asText(),
+          node.get("line").asInt(),
+          node.get("target").asText());
+    }
+  }
+
+  /** Latency figures of one scenario run, computed from the total time of its requests. */
+  public record Run(Instant at, int samples, double medianMs, double p95Ms) {
+
+    public static Run of(List<Double> requestMillis) {
+      double[] values = requestMillis.stream().mapToDouble(Double::doubleValue).toArray();
+      return new Run(
+          Instant.now(), values.length, round(median(values)), round(percentile(values, 95)));
+    }
+
+    static Run fromJson(JsonNode node) {
+      return new Run(
+          Instant.parse(node.get("at").asText()),
+          node.get("samples").asInt(),
+          node.get("medianMs").asDouble(),
+          node.get("p95Ms").asDouble());
+    }
+
+    private static double round(double millis) {
+      return Math.round(millis * 1000) / 1000.0;
+    }
+  }
+
+  /** A run measured against its baseline window. */
+  public record Comparison(Run current, double baselineMedianMs, double baselineP95Ms, int runs) {
+
+    public double medianChangePercent() {
+      return change(current.medianMs(), baselineMedianMs);
+    }
+
+    public double p95ChangePercent() {
+      return change(current.p95Ms(), baselineP95Ms);
+    }
+
+    /** Whether the median or the p95 got worse by more than {@code tolerancePercent}. */
+    public boolean isRegression(double tolerancePercent) {
+      return medianChangePercent() > tolerancePercent || p95ChangePercent() > tolerancePercent;
+    }
+
+    private static double change(double current, double baseline) {
+      return baseline <= 0 ? 0 : (current - baseline) * 100 / baseline;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "Latency vs. baseline of %d runs: median %.1f ms (baseline %.1f ms, %+.1f%%), p95 %.1f ms"
+              + " (baseline %.1f ms, %+.1f%%)",
+          runs,
+          current.medianMs(),
+          baselineMedianMs,
+          medianChangePercent(),
+          current.p95Ms(),
+          baselineP95Ms,
+          p95ChangePercent());
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import utils.ConfigReader;
+
+/**
+ * Last result of every scenario, keyed by {@link shard.Shard#key}, stored as a JSON object at
+ * {@code result.cache.path}. Each result carries the fingerprint of what the scenario ran against:
+ * the text of its feature file, the compiled test code (step definitions, {@code utils} and the
+ * HTTP, context and stub code they use), the files in {@code dataset.dir} and the target
+ * configuration. A result only speaks for a later run with the same fingerprint.
+ *
+ * <p>The file is read once per run. Results recorded during the run are written back by {@link
+ * #save}, merged into the file's current content under a lock on {@code <file>.lock}, so that
+ * shards sharing the file, even from other processes, keep each other's results.
+ */
+public final class ResultCache {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  // Configuration that decides what the scenarios run against; the rest only tunes the run
+  private static final List<String> TARGET_KEYS =
+      List.of("username", "password", "http.transport", "http.version");
+
+  private static ResultCache instance;
+
+  private final Path file;
+  private final Map<String, Result> results;
+  private final Map<String, Result> recorded = new HashMap<>();
+  private final Map<String, String> featureHashes = new ConcurrentHashMap<>();
+  private final String codeHash = codeHash();
+  private final String datasetHash = datasetHash();
+  private final String targetHash = targetHash();
+
+  private ResultCache(Path file) {
+    this.file = file;
+    this.results = read(file);
+  }
+
+  /** The cache at {@code result.cache.path}, shared by test discovery and the hooks. */
+  public static synchronized ResultCache get() {
+    if (instance == null) {
+      instance = new ResultCache(Path.of(ConfigReader.get("result.cache.path")));
+    }
+    return instance;
+  }
+
+  /** The result recorded by an earlier run, whatever it ran against. */
+  public synchronized Optional<Result> lookup(String key) {
+    return Optional.ofNullable(results.get(key));
+  }
+
+  /** Fingerprint of the scenario at {@code key} in this run. */
+  public String fingerprint(String key) {
+    String feature = key.substring(0, key.lastIndexOf(':'));
+    String featureHash = featureHashes.computeIfAbsent(feature, ResultCache::featureHash);
+    return sha256(
+        (featureHash + "\n" + codeHash + "\n" + datasetHash + "\n" + targetHash)
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
+  public synchronized void record(String key, String status) {
+    recorded.put(key, new Result(fingerprint(key), status, System.currentTimeMillis()));
+  }
+
+  /** Writes the results recorded in this run into the file. */
+  public synchronized void save() {
+    if (recorded.isEmpty()) return;
+    Path dir = file.toAbsolutePath().getParent();
+    Path lockFile = dir.resolve(file.getFileName() + ".lock");
+    try {
+      Files.createDirectories(dir);
+      // Shards in other processes save into the same file: the lock keeps one shard from writing
+      // between another's read and write, which would drop that shard's results. It is held on a
+      // file of its own, as the cache file is replaced, until the channel is closed.
+      try (FileChannel lock =
+          FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        lock.lock();
+        Map<String, Result> merged = read(file);
+        merged.putAll(recorded);
+        // Written aside and moved, so a shard reading the file never sees a partial one
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        MAPPER.writeValue(temp.toFile(), merged);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write result cache " + file, e);
+    }
+    results.putAll(recorded);
+    recorded.clear();
+  }
+
+  private static Map<String, Result> read(Path file) {
+    if (!Files.exists(file)) return new TreeMap<>();
+    try {
+      return MAPPER.readValue(file.toFile(), new TypeReference<TreeMap<String, Result>>() {});
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read result cache " + file, e);
+    }
+  }
+
+  private static String featureHash(String feature) {
+    Path path = Path.of(feature);
+    try {
+      if (Files.isRegularFile(path)) return sha256(Files.readAllBytes(path));
+      try (InputStream in = ResultCache.class.getClassLoader().getResourceAsStream(feature)) {
+        if (in == null) throw new IllegalStateException("Feature not found: " + feature);
+        return sha256(in.readAllBytes());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read feature " + feature, e);
+    }
+  }
+
+  /**
+   * Hash of every class compiled with the step definitions: the directory or jar they were loaded
+   * from, walked in a stable order.
+   */
+  private static String codeHash() {
+    MessageDigest digest = newDigest();
+    try {
+      Path location =
+          Path.of(ResultCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+      if (Files.isDirectory(location)) {
+        addFiles(location, ".class", digest);
+      } else {
+        try (FileSystem jar = FileSystems.newFileSystem(location)) {
+          addFiles(jar.getPath("/"), ".class", digest);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not hash the test classes", e);
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException("Could not locate the test classes", e);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Hash of every file in {@code dataset.dir}: a dataset step's scenario text stays the same when
+   * the rows it replays change.
+   */
+  private static String datasetHash() {
+    MessageDigest digest = newDigest();
+    Path dir = Path.of(ConfigReader.get("dataset.dir"));
+    if (Files.isDirectory(dir)) {
+      try {
+        addFiles(dir, "", digest);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not hash the datasets in " + dir, e);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void addFiles(Path root, String suffix, MessageDigest digest) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    try (Stream<Path> files = Files.walk(root)) {
+      for (Path file :
+          files
+              .filter(f -> Files.isRegularFile(f) && f.toString().endsWith(suffix))
+              .sorted()
+              .toList()) {
+        digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+        // Streamed, as datasets can be far larger than the heap
+        try (InputStream in = Files.newInputStream(file)) {
+          int read;
+          while ((read = in.read(buffer)) > 0) digest.update(buffer, 0, read);
+        }
+      }
+    }
+  }
+
+  private static String targetHash() {
+    // The stub listens on a random port, so its runs count as one target
+    StringBuilder target =
+        new StringBuilder(
+            Boolean.parseBoolean(ConfigReader.get("stub")) ? "stub" : ConfigReader.get("base.url"));
+    for (String key : TARGET_KEYS) {
+      target.append('\n').append(key).append('=').append(ConfigReader.get(key));
+    }
+    return sha256(target.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String sha256(byte[] bytes) {
+    return HexFormat.of().formatHex(newDigest().digest(bytes));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * One recorded scenario run.
+   *
+   * @param fingerprint {@link #fingerprint} of the run
+   * @param status Cucumber status, such as {@code PASSED} or {@code FAILED}
+   * @param recordedAt end of the run, in epoch milliseconds
+   */
+  public record Result(String fingerprint, String status, long recordedAt) {
+
+    public boolean passed() {
+      return "PASSED".equals(status);
+    }
+  }
+}
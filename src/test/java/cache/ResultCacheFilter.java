@@ -0,0 +1,147 @@
+package cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestTag;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import shard.Shard;
+import utils.ConfigReader;
+
+/**
+ * Uses the {@link ResultCache} to order and thin out the discovered scenarios, depending on {@code
+ * result.cache}:
+ *
+ * <ul>
+ *   <li>{@code off} (default): nothing changes and no results are recorded.
+ *   <li>{@code reorder}: scenarios that did not pass last time run first, then new and changed
+ *       ones, then the ones that passed against the same fingerprint.
+ *   <li>{@code skip}: as {@code reorder}, but scenarios that passed against the same fingerprint
+ *       within {@code result.cache.pass.ttl.hours} are not run at all.
+ * </ul>
+ *
+ * Known-bug scenarios ({@code @bug} or {@code @bugs}) are run less often: with a result against the
+ * same fingerprint younger than {@code result.cache.bug.ttl.hours}, passing or not, they are
+ * ordered last, and skipped in {@code skip} mode.
+ *
+ * <p>Cucumber runs features one after the other, so the order applies to features first (by their
+ * most urgent scenario) and to scenarios within each feature. The filter reorders the discovered
+ * tree when it is handed the root, before any scenario is filtered.
+ */
+public class ResultCacheFilter implements PostDiscoveryFilter {
+
+  private static final List<String> BUG_TAGS = List.of("bug", "bugs");
+
+  private static final List<String> MODES = List.of("off", "reorder", "skip");
+
+  private final String mode = mode();
+  private final Map<String, String> skipped = new HashMap<>();
+
+  @Override
+  public FilterResult apply(TestDescriptor descriptor) {
+    if ("off".equals(mode)) return FilterResult.included("result cache off");
+    if (descriptor.isRoot()) {
+      plan(descriptor);
+      return FilterResult.included("result cache applied");
+    }
+    if (!descriptor.isTest()) return FilterResult.included("not a scenario");
+
+    String reason = Shard.key(descriptor).map(skipped::get).orElse(null);
+    return reason == null ? FilterResult.included("run") : FilterResult.excluded(reason);
+  }
+
+  // A misspelt mode would otherwise quietly behave like reorder
+  private static String mode() {
+    String mode = ConfigReader.get("result.cache").toLowerCase();
+    if (!MODES.contains(mode)) {
+      throw new IllegalArgumentException(
+          "Unknown result.cache: " + mode + " (expected off, reorder or skip)");
+    }
+    return mode;
+  }
+
+  private synchronized void plan(TestDescriptor root) {
+    ResultCache cache = ResultCache.get();
+    Map<Priority, Integer> counts = new HashMap<>();
+    reorder(root, cache, counts);
+    if (counts.isEmpty()) return;
+    System.err.printf(
+        "Result cache (%s): %d not passed last run first, %d new or changed, %d passed before%s%n",
+        mode,
+        counts.getOrDefault(Priority.NOT_PASSED, 0),
+        counts.getOrDefault(Priority.CHANGED, 0),
+        counts.getOrDefault(Priority.PASSED, 0),
+        skipped.isEmpty() ? "" : ", " + skipped.size() + " of them skipped");
+  }
+
+  /** Sorts the children of {@code descriptor} by priority and returns its most urgent one. */
+  private Priority reorder(
+      TestDescriptor descriptor, ResultCache cache, Map<Priority, Integer> counts) {
+    if (descriptor.isTest()) {
+      Priority priority = prioritize(descriptor, cache);
+      counts.merge(priority, 1, Integer::sum);
+      return priority;
+    }
+    List<TestDescriptor> children = new ArrayList<>(descriptor.getChildren());
+    Map<TestDescriptor, Priority> priorities = new HashMap<>();
+    for (TestDescriptor child : children) priorities.put(child, reorder(child, cache, counts));
+
+    List<TestDescriptor> sorted = new ArrayList<>(children);
+    sorted.sort(Comparator.comparing(priorities::get));
+    if (!sorted.equals(children)) {
+      // Children run in insertion order; removing and adding them again moves them to the end
+      for (TestDescriptor child : sorted) {
+        descriptor.removeChild(child);
+        descriptor.addChild(child);
+      }
+    }
+    return priorities.values().stream().min(Comparator.naturalOrder()).orElse(Priority.PASSED);
+  }
+
+  private Priority prioritize(TestDescriptor test, ResultCache cache) {
+    Optional<String> key = Shard.key(test);
+    if (key.isEmpty()) return Priority.CHANGED;
+    Optional<ResultCache.Result> result = cache.lookup(key.get());
+    if (result.isEmpty()) return Priority.CHANGED;
+
+    boolean sameRun = result.get().fingerprint().equals(cache.fingerprint(key.get()));
+    Duration age = Duration.ofMillis(System.currentTimeMillis() - result.get().recordedAt());
+    boolean knownBug = test.getTags().stream().map(TestTag::getName).anyMatch(BUG_TAGS::contains);
+
+    if (knownBug && sameRun && age.compareTo(ttl("result.cache.bug.ttl.hours")) < 0) {
+      skipIf(key.get(), "known bug, last run " + hours(age) + " ago");
+      return Priority.PASSED;
+    }
+    if (!result.get().passed()) return Priority.NOT_PASSED;
+    if (!sameRun) return Priority.CHANGED;
+    if (age.compareTo(ttl("result.cache.pass.ttl.hours")) < 0) {
+      skipIf(key.get(), "passed " + hours(age) + " ago against the same features, code and target");
+    }
+    return Priority.PASSED;
+  }
+
+  private void skipIf(String key, String reason) {
+    if ("skip".equals(mode)) skipped.put(key, reason);
+  }
+
+  private static Duration ttl(String key) {
+    return Duration.ofMinutes(Math.round(Double.parseDouble(ConfigReader.get(key)) * 60));
+  }
+
+  private static String hours(Duration age) {
+    return String.format("%.1fh", age.toMinutes() / 60.0);
+  }
+
+  /** Run order of a scenario, most urgent first. */
+  private enum Priority {
+    NOT_PASSED,
+    CHANGED,
+    PASSED
+  }
+}
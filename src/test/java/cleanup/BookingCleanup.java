@@ -0,0 +1,242 @@
+package cleanup;
+
+import auth.TokenCache;
+import http.EndpointTimings;
+import http.HttpTransport;
+import http.JsonExtractor;
+import http.OutgoingRequest;
+import http.RequestLimiter;
+import http.XmlExtractor;
+import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import utils.ConfigReader;
+
+/**
+ * Deletes the bookings a run creates, so long runs do not keep filling the target. Scenarios hand
+ * over the ids of their bookings when they end, never while a step may still use them; load,
+ * dataset and fuzz runs, which no later step depends on, hand over each booking as it is created. A
+ * daemon worker deletes them in batches of {@code cleanup.batch.size}, as soon as a batch is full
+ * and at least every second: each batch with one token from the {@link TokenCache} and at most
+ * {@code cleanup.concurrency} deletes in flight, unlogged and through {@link RequestLimiter#send}.
+ *
+ * <p>{@link #flush} at the end of the run stops the worker, deletes what is still queued, retries
+ * the failed deletes once and starts over, so a soak run, which ends a run every iteration, keeps
+ * cleaning up in the background. Ids are not deduplicated beyond the scenario, which keeps the
+ * memory use constant: a booking deleted twice, or already deleted by its scenario, is answered
+ * with 404 (or 405, as the service answers for an unknown id) and counts as already gone.
+ */
+public final class BookingCleanup {
+
+  private static final BookingCleanup INSTANCE = new BookingCleanup();
+  private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final String JSON_ID = "bookingid";
+  private static final String XML_ID = "created-booking.bookingid";
+
+  private final boolean enabled = Boolean.parseBoolean(ConfigReader.get("cleanup.bookings"));
+  private final int batchSize = Math.max(1, ConfigReader.getInt("cleanup.batch.size"));
+  private final int concurrency = Math.max(1, ConfigReader.getInt("cleanup.concurrency"));
+  private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+  // ConcurrentLinkedQueue.size() walks the queue
+  private final AtomicInteger queued = new AtomicInteger();
+  private final LongAdder added = new LongAdder();
+  private final LongAdder deleted = new LongAdder();
+  private final LongAdder alreadyGone = new LongAdder();
+  private final Map<String, String> failures = new ConcurrentHashMap<>();
+  private volatile Thread worker;
+  private volatile boolean running;
+
+  private BookingCleanup() {
+    if (enabled) startWorker();
+  }
+
+  public static BookingCleanup get() {
+    return INSTANCE;
+  }
+
+  private void startWorker() {
+    running = true;
+    worker = Thread.ofPlatform().name("booking-cleanup").daemon().start(this::deleteInBackground);
+  }
+
+  /** Queues bookings for deletion. A no-op when cleanup is off. */
+  public void addAll(Iterable<String> bookingIds) {
+    if (!enabled) return;
+    bookingIds.forEach(this::add);
+  }
+
+  /**
+   * Queues the booking {@code request} created, if it was a {@code POST /booking} answered with
+   * 200, taking the id from the JSON or XML response. For steps that do not read their responses
+   * otherwise.
+   */
+  public void addCreated(OutgoingRequest request, Response response) {
+    if (!enabled
+        || response.statusCode() != 200
+        || !request.method().equals("POST")
+        || !EndpointTimings.path(request.url()).endsWith("/booking")) {
+      return;
+    }
+    Object bookingId;
+    try {
+      byte[] body = response.asByteArray();
+      bookingId =
+          String.valueOf(response.contentType()).contains("xml")
+              ? XmlExtractor.extract(body, List.of(XML_ID)).get(XML_ID)
+              : JsonExtractor.extract(body, List.of(JSON_ID)).get(JSON_ID);
+    } catch (RuntimeException e) {
+      // Not a booking the service created after all, so nothing to delete
+      return;
+    }
+    if (bookingId != null) add(String.valueOf(bookingId));
+  }
+
+  private void add(String bookingId) {
+    queue.add(bookingId);
+    added.increment();
+    if (queued.incrementAndGet() >= batchSize) LockSupport.unpark(worker);
+  }
+
+  private void deleteInBackground() {
+    while (running) {
+      if (queued.get() < batchSize) LockSupport.parkNanos(this, IDLE_NANOS);
+      if (!running) return;
+      List<String> batch = poll();
+      if (!batch.isEmpty()) delete(batch);
+    }
+  }
+
+  /**
+   * Stops the worker, deletes the bookings still queued, retries the failed ones once, then starts
+   * a new worker with fresh counts.
+   *
+   * @return what the cleanup did since the last flush, including the bookings it could not delete
+   */
+  public Report flush() {
+    if (!enabled) return new Report(0, 0, 0, new TreeMap<>());
+    running = false;
+    LockSupport.unpark(worker);
+    try {
+      worker.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Booking cleanup was interrupted", e);
+    }
+    for (List<String> batch = poll(); !batch.isEmpty(); batch = poll()) {
+      delete(batch);
+    }
+
+    List<String> retries = new ArrayList<>(failures.keySet());
+    failures.clear();
+    for (int from = 0; from < retries.size(); from += batchSize) {
+      delete(retries.subList(from, Math.min(retries.size(), from + batchSize)));
+    }
+    Report report =
+        new Report(
+            added.sumThenReset(),
+            deleted.sumThenReset(),
+            alreadyGone.sumThenReset(),
+            new TreeMap<>(failures));
+    failures.clear();
+    startWorker();
+    return report;
+  }
+
+  private List<String> poll() {
+    List<String> batch = new ArrayList<>(batchSize);
+    String bookingId;
+    while (batch.size() < batchSize && (bookingId = queue.poll()) != null) {
+      batch.add(bookingId);
+      queued.decrementAndGet();
+    }
+    return batch;
+  }
+
+  private void delete(List<String> batch) {
+    String baseUrl = ConfigReader.get("base.url");
+    String cookie;
+    try {
+      cookie =
+          "token="
+              + TokenCache.get()
+                  .token(baseUrl, ConfigReader.get("username"), ConfigReader.get("password"), null)
+                  .value();
+    } catch (RuntimeException e) {
+      batch.forEach(bookingId -> failures.put(bookingId, String.valueOf(e.getMessage())));
+      return;
+    }
+
+    HttpTransport transport = HttpTransport.configured();
+    AtomicInteger next = new AtomicInteger();
+    // Platform threads: the pooled Apache client blocks on sockets inside synchronized blocks, so
+    // deletes on virtual threads pin the carriers the load, dataset and fuzz steps send on
+    try (ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofPlatform().name("booking-cleanup-", 0).daemon().factory())) {
+      List<Future<?>> futures = new ArrayList<>(concurrency);
+      for (int i = 0; i < Math.min(batch.size(), concurrency); i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  int index;
+                  while ((index = next.getAndIncrement()) < batch.size()) {
+                    delete(transport, baseUrl, batch.get(index), cookie);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Booking cleanup was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Booking cleanup worker failed", e.getCause());
+    }
+  }
+
+  private void delete(HttpTransport transport, String baseUrl, String bookingId, String cookie) {
+    String url = baseUrl + "/booking/" + bookingId;
+    OutgoingRequest request = new OutgoingRequest("DELETE", url, Map.of("Cookie", cookie), null);
+    RequestLimiter.Sent sent = RequestLimiter.get().send(transport, request, null);
+    if (sent.failure() != null) {
+      failures.put(bookingId, String.valueOf(sent.failure()));
+      return;
+    }
+    switch (sent.response().statusCode()) {
+      case 200, 201, 204 -> deleted.increment();
+      case 404, 405 -> alreadyGone.increment();
+      default -> failures.put(bookingId, "HTTP " + sent.response().statusCode());
+    }
+  }
+
+  /**
+   * Outcome of the run's cleanup.
+   *
+   * @param failures ids of the bookings that could not be deleted, with the last reason
+   */
+  public record Report(
+      long bookings, long deleted, long alreadyGone, SortedMap<String, String> failures) {
+
+    @Override
+    public String toString() {
+      return String.format(
+          "Booking cleanup: %d bookings, deleted: %d, already gone: %d, not deleted: %d",
+          bookings, deleted, alreadyGone, failures.size());
+    }
+  }
+}
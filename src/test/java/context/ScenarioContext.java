@@ -1,13 +1,29 @@
 package context;
 
-import io.restassured.path.json.JsonPath;
+import com.fasterxml.jackson.databind.JsonNode;
+import dataset.DatasetResult;
+import fuzz.FuzzResult;
+import http.ExchangeTiming;
+import http.JsonExtractor;
 import io.restassured.response.Response;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import load.LoadResult;
 
 /**
  * Shared context between step definition classes using Cucumber's PicoContainer. Stores state
  * relevant to the current scenario's request and response cycle.
+ *
+ * <p>PicoContainer creates a fresh context (together with fresh step definition instances) for
+ * every scenario, so during parallel execution each instance is confined to the thread running its
+ * scenario and needs no synchronization. Anything that must be shared between scenarios belongs in
+ * a thread-safe static holder instead.
  */
 public class ScenarioContext {
 
@@ -28,6 +44,26 @@ public class ScenarioContext {
   // The response received from the last executed request
   private Response response;
 
+  // Parsed forms of the response body, each computed at most once per response
+  private JsonNode responseJson;
+  private final Map<String, Object> responseValues = new HashMap<>();
+  private List<String> responseKeys;
+
+  // Timing breakdown of every request executed by this scenario, in order
+  private final List<ExchangeTiming> responseTimings = new ArrayList<>();
+
+  // Aggregated outcome of the last load-generation step
+  private LoadResult loadResult;
+
+  // Aggregated outcome of the last dataset replay step
+  private DatasetResult datasetResult;
+
+  // Aggregated outcome of the last fuzzing step
+  private FuzzResult fuzzResult;
+
+  // Ids of the bookings this scenario created, handed to the booking cleanup when it ends
+  private final Set<String> createdBookings = new LinkedHashSet<>();
+
   public void setPayload(String key, Object value) {
     payload.put(key, value);
   }
@@ -65,16 +101,142 @@ public class ScenarioContext {
     return response;
   }
 
-  public JsonPath getJSONResponse() {
-    return response.jsonPath();
+  /** The response body as a Jackson tree, parsed on first use. */
+  public JsonNode getJSONResponse() {
+    if (responseJson == null) responseJson = JsonExtractor.readTree(response.asByteArray());
+    return responseJson;
+  }
+
+  /**
+   * Value at the dot-separated {@code path} of the JSON response as text, or {@code null} if it is
+   * missing or JSON null. Read from the tree if it has already been parsed, otherwise streamed out
+   * of the body without building one.
+   */
+  public String getResponseString(String path) {
+    Object value = getResponseValues(path).get(path);
+    return value == null
+        ? null
+        : value instanceof JsonNode node ? node.toString() : value.toString();
   }
 
-  public String getResponseString(String key) {
-    return getJSONResponse().getString(key);
+  /**
+   * Values at {@code paths} of the JSON response, keyed by full path; see {@link
+   * JsonExtractor#extract} for the path syntax. Each path is read from the body only once.
+   */
+  public Map<String, Object> getResponseValues(String... paths) {
+    List<String> missing =
+        Arrays.stream(paths).filter(path -> !responseValues.containsKey(path)).toList();
+    if (!missing.isEmpty()) {
+      Map<String, Object> extracted =
+          responseJson != null
+              ? JsonExtractor.extract(responseJson, missing)
+              : JsonExtractor.extract(response.asByteArray(), missing);
+      for (String path : missing) {
+        if (path.endsWith(".*")) {
+          responseValues.put(path, subMap(extracted, path.substring(0, path.length() - 1)));
+        } else {
+          responseValues.put(path, extracted.get(path));
+        }
+      }
+    }
+
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (String path : paths) {
+      Object value = responseValues.get(path);
+      if (path.endsWith(".*")) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> leaves = (Map<String, Object>) value;
+        values.putAll(leaves);
+      } else if (value != null) {
+        values.put(path, value);
+      }
+    }
+    return values;
+  }
+
+  /** Keys of the top-level JSON object of the response, in document order. */
+  public List<String> getResponseKeys() {
+    if (responseKeys == null) {
+      if (responseJson != null) {
+        responseKeys = new ArrayList<>();
+        responseJson.fieldNames().forEachRemaining(responseKeys::add);
+      } else {
+        responseKeys = JsonExtractor.topLevelKeys(response.asByteArray());
+      }
+    }
+    return responseKeys;
+  }
+
+  private static Map<String, Object> subMap(Map<String, Object> values, String prefix) {
+    Map<String, Object> leaves = new LinkedHashMap<>();
+    values.forEach(
+        (path, value) -> {
+          if (path.startsWith(prefix)) leaves.put(path, value);
+        });
+    return leaves;
   }
 
   public void setResponse(Response response) {
     this.response = response;
+    responseJson = null;
+    responseValues.clear();
+    responseKeys = null;
+  }
+
+  public ExchangeTiming getResponseTiming() {
+    if (responseTimings.isEmpty()) {
+      throw new IllegalStateException("No timed request has been executed in this scenario.");
+    }
+    return responseTimings.getLast();
+  }
+
+  public List<ExchangeTiming> getResponseTimings() {
+    return responseTimings;
+  }
+
+  public void addResponseTiming(ExchangeTiming responseTiming) {
+    responseTimings.add(responseTiming);
+  }
+
+  public LoadResult getLoadResult() {
+    if (loadResult == null) {
+      throw new IllegalStateException("No load test has been run in this scenario.");
+    }
+    return loadResult;
+  }
+
+  public void setLoadResult(LoadResult loadResult) {
+    this.loadResult = loadResult;
+  }
+
+  public DatasetResult getDatasetResult() {
+    if (datasetResult == null) {
+      throw new IllegalStateException("No dataset has been replayed in this scenario.");
+    }
+    return datasetResult;
+  }
+
+  public void setDatasetResult(DatasetResult datasetResult) {
+    this.datasetResult = datasetResult;
+  }
+
+  public FuzzResult getFuzzResult() {
+    if (fuzzResult == null) {
+      throw new IllegalStateException("No fuzz run has been made in this scenario.");
+    }
+    return fuzzResult;
+  }
+
+  public void setFuzzResult(FuzzResult fuzzResult) {
+    this.fuzzResult = fuzzResult;
+  }
+
+  public Set<String> getCreatedBookings() {
+    return createdBookings;
+  }
+
+  public void addCreatedBooking(String bookingId) {
+    createdBookings.add(bookingId);
   }
 
   public Map<String, String> getData() {
@@ -0,0 +1,199 @@
+package dataset;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import utils.TestUtils;
+
+/**
+ * A file of scenario inputs with one row per line, read lazily through {@link MappedLines} instead
+ * of being expanded into an {@code Examples:} table. The format follows the file extension:
+ *
+ * <ul>
+ *   <li>{@code .csv}: a first line of field names, then one comma-separated row per line. Cells are
+ *       read like the cells of an {@code Examples:} table with {@link TestUtils#parseValue}, so
+ *       {@code 12} is a number, {@code "12"} a string and {@code <missing>} a null. Quoted cells
+ *       may contain commas, and {@code ""} stands for a quote inside them; a row cannot span lines.
+ *   <li>{@code .jsonl}: one JSON object per line. String values go through {@link
+ *       TestUtils#parseValue} as well; other values keep their JSON type.
+ * </ul>
+ *
+ * <p>Field names are dot paths such as {@code bookingdates.checkin}. The field {@value
+ * #STATUS_FIELD}, if present, is not part of the row's values but the status code expected for it.
+ * Blank lines and lines starting with {@code #} are skipped.
+ */
+public final class Dataset {
+
+  public static final String STATUS_FIELD = "_status";
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  /** Byte range of the file read by one worker. */
+  record Range(long from, long to) {}
+
+  /** Receives one row, with its byte offset in the file. */
+  @FunctionalInterface
+  interface RowConsumer {
+    void accept(long offset, String row);
+  }
+
+  private final Path file;
+  private final boolean csv;
+  private final long size;
+  private final long firstRow;
+  private final List<String> columns;
+
+  private Dataset(Path file, boolean csv, long size, long firstRow, List<String> columns) {
+    this.file = file;
+    this.csv = csv;
+    this.size = size;
+    this.firstRow = firstRow;
+    this.columns = columns;
+  }
+
+  /**
+   * Opens {@code file} and, for a CSV file, reads its header.
+   *
+   * @throws IllegalArgumentException if the extension is neither {@code .csv} nor {@code .jsonl}
+   */
+  public static Dataset open(Path file) {
+    String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+    boolean csv = name.endsWith(".csv");
+    if (!csv && !name.endsWith(".jsonl")) {
+      throw new IllegalArgumentException("Dataset must be a .csv or .jsonl file: " + file);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (!csv) return new Dataset(file, false, size, 0, List.of());
+
+      MappedLines lines = new MappedLines(channel, size);
+      List<String> columns = new ArrayList<>();
+      lines.forEach(
+          0,
+          1,
+          0,
+          (offset, bytes, length) -> {
+            for (String column : cells(new String(bytes, 0, length, StandardCharsets.UTF_8))) {
+              columns.add(column.trim());
+            }
+          });
+      if (columns.isEmpty()) throw new IllegalArgumentException("Dataset has no header: " + file);
+      return new Dataset(file, true, size, lines.nextLine(0), List.copyOf(columns));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open dataset " + file, e);
+    }
+  }
+
+  public Path file() {
+    return file;
+  }
+
+  public String name() {
+    return file.getFileName().toString();
+  }
+
+  /** Splits the rows into at most {@code parts} byte ranges of about the same size. */
+  List<Range> split(int parts) {
+    long length = size - firstRow;
+    int count = (int) Math.max(1, Math.min(parts, length));
+    List<Range> ranges = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ranges.add(new Range(firstRow + length * i / count, firstRow + length * (i + 1) / count));
+    }
+    return ranges;
+  }
+
+  /** Hands every row starting in {@code range} to {@code consumer}, one at a time. */
+  void forEachRow(Range range, RowConsumer consumer) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      new MappedLines(channel, size)
+          .forEach(
+              range.from(),
+              range.to(),
+              firstRow,
+              (offset, bytes, length) -> {
+                String row = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                if (!row.isBlank() && !row.startsWith("#")) consumer.accept(offset, row);
+              });
+    }
+  }
+
+  /**
+   * Values of one row by field name, in column order.
+   *
+   * @throws IllegalArgumentException if the row is malformed
+   */
+  Map<String, Object> parse(String row) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    if (csv) {
+      List<String> cells = cells(row);
+      if (cells.size() != columns.size()) {
+        throw new IllegalArgumentException(
+            "Row has " + cells.size() + " cells but the header " + columns.size());
+      }
+      for (int i = 0; i < cells.size(); i++) {
+        values.put(columns.get(i), TestUtils.parseValue(cells.get(i), columns.get(i)));
+      }
+    } else {
+      Map<String, Object> object;
+      try {
+        object = JSON.readValue(row, new TypeReference<LinkedHashMap<String, Object>>() {});
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Row is not a JSON object: " + e.getOriginalMessage());
+      }
+      object.forEach(
+          (field, value) ->
+              values.put(
+                  field, value instanceof String text ? TestUtils.parseValue(text, field) : value));
+    }
+    return values;
+  }
+
+  // Quoted cells are returned with their quotes, which is how parseValue recognizes strings
+  private static List<String> cells(String row) {
+    List<String> cells = new ArrayList<>();
+    int i = 0;
+    while (true) {
+      int start = i;
+      while (start < row.length() && row.charAt(start) == ' ') start++;
+      if (start < row.length() && row.charAt(start) == '"') {
+        StringBuilder cell = new StringBuilder("\"");
+        i = start + 1;
+        while (true) {
+          int quote = row.indexOf('"', i);
+          if (quote < 0) throw new IllegalArgumentException("Unterminated quoted cell: " + row);
+          cell.append(row, i, quote);
+          if (quote + 1 < row.length() && row.charAt(quote + 1) == '"') {
+            cell.append('"');
+            i = quote + 2;
+          } else {
+            i = quote + 1;
+            break;
+          }
+        }
+        cells.add(cell.append('"').toString());
+        while (i < row.length() && row.charAt(i) == ' ') i++;
+        if (i < row.length() && row.charAt(i) != ',') {
+          throw new IllegalArgumentException("Text after a quoted cell: " + row);
+        }
+      } else {
+        int comma = row.indexOf(',', start);
+        i = comma < 0 ? row.length() : comma;
+        cells.add(row.substring(start, i).trim());
+      }
+      if (i >= row.length()) return cells;
+      i++;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package dataset;
+
+import cleanup.BookingCleanup;
+import http.HttpTransport;
+import http.OutgoingRequest;
+import http.RequestLimiter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sends one request per row of a {@link Dataset}. The file is split into byte ranges, one per
+ * worker, and every worker is a virtual thread that reads, sends and checks its rows one at a time,
+ * so no more rows are in memory than there are workers. Exchanges are not logged into the scenario
+ * report; the outcome is a {@link DatasetResult}.
+ */
+public final class DatasetReplay {
+
+  private DatasetReplay() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /** Builds the request of one row from its values. */
+  @FunctionalInterface
+  public interface RequestFactory {
+    OutgoingRequest create(Map<String, Object> values) throws Exception;
+  }
+
+  /**
+   * Replays every row of {@code dataset} with {@code workers} workers. A row passes when it is
+   * answered with its {@value Dataset#STATUS_FIELD} status, or {@code expectedStatus} if it has
+   * none. Failed rows are written to a file in {@code failureDir}.
+   */
+  public static DatasetResult run(
+      HttpTransport transport,
+      Dataset dataset,
+      int workers,
+      int expectedStatus,
+      RequestFactory requests,
+      Path failureDir) {
+    if (workers < 1) throw new IllegalArgumentException("Concurrency must be positive");
+
+    DatasetResult result = new DatasetResult(dataset.name(), failureDir);
+    result.start();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> futures = new ArrayList<>(workers);
+      for (Dataset.Range range : dataset.split(workers)) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  dataset.forEachRow(
+                      range,
+                      (offset, row) ->
+                          replay(
+                              transport, dataset, row, offset, expectedStatus, requests, result));
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Dataset replay was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Dataset worker failed", e.getCause());
+    } finally {
+      result.finish();
+    }
+    return result;
+  }
+
+  private static void replay(
+      HttpTransport transport,
+      Dataset dataset,
+      String row,
+      long offset,
+      int expectedStatus,
+      RequestFactory requests,
+      DatasetResult result) {
+    int expected = expectedStatus;
+    OutgoingRequest request;
+    try {
+      Map<String, Object> values = dataset.parse(row);
+      Object status = values.remove(Dataset.STATUS_FIELD);
+      if (status != null) {
+        expected =
+            status instanceof Number number
+                ? number.intValue()
+                : Integer.parseInt(String.valueOf(status).trim());
+      }
+      request = requests.create(values);
+    } catch (Exception e) {
+      result.recordRow(null);
+      result.recordFailure(offset, row, expected, null, "Invalid row: " + e.getMessage());
+      return;
+    }
+
+    RequestLimiter.Sent sent = RequestLimiter.get().send(transport, request, null);
+    if (sent.failure() != null) {
+      result.recordRow(null);
+      result.recordFailure(offset, row, expected, null, String.valueOf(sent.failure()));
+      return;
+    }
+    int status = sent.response().statusCode();
+    result.recordRow(status);
+    if (status != expected) result.recordFailure(offset, row, expected, status, null);
+    BookingCleanup.get().addCreated(request, sent.response());
+  }
+}
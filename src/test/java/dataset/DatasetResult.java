@@ -0,0 +1,166 @@
+package dataset;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe outcome of a dataset replay: row count, status-code distribution and failed rows. A
+ * failed row is one that could not be parsed or sent, or was answered with another status than
+ * expected. Every failure is appended to a JSON Lines file, created on the first one; only the
+ * first {@value #SAMPLE_SIZE} are also kept in memory for the report, so a dataset failing
+ * throughout costs no more memory than one that passes.
+ */
+public final class DatasetResult {
+
+  static final int SAMPLE_SIZE = 10;
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final String dataset;
+  private final Path failureDir;
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  // Guards the failure file and sample; a lock rather than a monitor, so virtual threads unmount
+  private final ReentrantLock failureLock = new ReentrantLock();
+  private final List<String> failureSample = new ArrayList<>();
+  private Path failureFile;
+  private BufferedWriter failureWriter;
+  private volatile long startNanos;
+  private volatile long endNanos;
+
+  DatasetResult(String dataset, Path failureDir) {
+    this.dataset = dataset;
+    this.failureDir = failureDir;
+  }
+
+  void start() {
+    startNanos = System.nanoTime();
+  }
+
+  void finish() {
+    endNanos = System.nanoTime();
+    failureLock.lock();
+    try {
+      if (failureWriter != null) failureWriter.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write dataset failures to " + failureFile, e);
+    } finally {
+      failureLock.unlock();
+    }
+  }
+
+  /** Counts a row, with the status code it was answered with, or {@code null} if it was not. */
+  void recordRow(Integer statusCode) {
+    rows.increment();
+    if (statusCode != null) {
+      statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+  }
+
+  /**
+   * @param status status code received, or {@code null} if the row was not sent or not answered
+   * @param error why the row was not sent or not answered, or {@code null}
+   */
+  void recordFailure(long offset, String row, int expectedStatus, Integer status, String error) {
+    failures.increment();
+    Map<String, Object> failure = new LinkedHashMap<>();
+    failure.put("offset", offset);
+    failure.put("expectedStatus", expectedStatus);
+    if (status != null) failure.put("status", status);
+    if (error != null) failure.put("error", error);
+    failure.put("row", row);
+    String line;
+    try {
+      line = JSON.writeValueAsString(failure);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize a dataset failure", e);
+    }
+
+    failureLock.lock();
+    try {
+      if (failureWriter == null) {
+        Files.createDirectories(failureDir);
+        failureFile = Files.createTempFile(failureDir, dataset + "-failures-", ".jsonl");
+        failureWriter = Files.newBufferedWriter(failureFile, StandardCharsets.UTF_8);
+      }
+      failureWriter.write(line);
+      failureWriter.newLine();
+      if (failureSample.size() < SAMPLE_SIZE) failureSample.add(line);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write dataset failures to " + failureDir, e);
+    } finally {
+      failureLock.unlock();
+    }
+  }
+
+  public long rows() {
+    return rows.sum();
+  }
+
+  public long failures() {
+    return failures.sum();
+  }
+
+  /** JSON Lines file listing every failed row, or {@code null} if none failed. */
+  public Path failureFile() {
+    failureLock.lock();
+    try {
+      return failureFile;
+    } finally {
+      failureLock.unlock();
+    }
+  }
+
+  /** The first failed rows, as the JSON lines written to the {@link #failureFile}. */
+  public List<String> failureSample() {
+    failureLock.lock();
+    try {
+      return List.copyOf(failureSample);
+    } finally {
+      failureLock.unlock();
+    }
+  }
+
+  public Duration elapsed() {
+    return Duration.ofNanos(endNanos - startNanos);
+  }
+
+  /** Status code to number of responses, sorted by status code. */
+  public Map<Integer, Long> statusDistribution() {
+    Map<Integer, Long> distribution = new TreeMap<>();
+    statusCounts.forEach((status, count) -> distribution.put(status, count.sum()));
+    return distribution;
+  }
+
+  @Override
+  public String toString() {
+    long nanos = endNanos - startNanos;
+    String summary =
+        String.format(
+            "Dataset %s: %d rows in %.3f s (%.1f rows/s), failed: %d, status codes: %s",
+            dataset,
+            rows(),
+            nanos / 1e9,
+            nanos <= 0 ? 0 : rows() * 1e9 / nanos,
+            failures(),
+            statusDistribution());
+    Path file = failureFile();
+    return file == null ? summary : summary + ", failures in " + file;
+  }
+}
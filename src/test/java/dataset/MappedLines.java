@@ -0,0 +1,96 @@
+package dataset;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a byte range of a file through memory-mapped windows. A line belongs to the
+ * range its first byte falls in, so adjacent ranges together read every line exactly once, however
+ * the range boundaries cut through them. Only one window of at most {@link #WINDOW} bytes is mapped
+ * at a time, and a line is copied out only while it is handed to the consumer, so memory stays flat
+ * whatever the size of the file.
+ */
+final class MappedLines {
+
+  static final int WINDOW = 64 << 20;
+
+  /** Receives one line, without its line terminator, in {@code bytes[0, length)}. */
+  @FunctionalInterface
+  interface LineConsumer {
+    void accept(long offset, byte[] bytes, int length);
+  }
+
+  private final FileChannel channel;
+  private final long size;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private byte[] line = new byte[256];
+
+  MappedLines(FileChannel channel, long size) {
+    this.channel = channel;
+    this.size = size;
+  }
+
+  /**
+   * Hands every line starting in {@code [from, to)} to {@code consumer}. Unless {@code from} is
+   * {@code firstLine}, a known line start, it may fall inside a line, so reading starts after the
+   * next line break at or after {@code from - 1}.
+   */
+  void forEach(long from, long to, long firstLine, LineConsumer consumer) throws IOException {
+    // The line running through the boundary belongs to the previous range
+    long position = from > firstLine ? nextLine(from - 1) : from;
+    while (position < to && position < size) {
+      long newline = indexOfNewline(position);
+      long end = newline < 0 ? size : newline;
+      int length = copy(position, end);
+      if (length > 0 && line[length - 1] == '\r') length--;
+      consumer.accept(position, line, length);
+      position = end + 1;
+    }
+  }
+
+  /** Offset of the line after the one holding {@code position}, or the file size if it is last. */
+  long nextLine(long position) throws IOException {
+    long newline = indexOfNewline(position);
+    return newline < 0 ? size : newline + 1;
+  }
+
+  private long indexOfNewline(long from) throws IOException {
+    long position = from;
+    while (position < size) {
+      map(position);
+      int limit = window.limit();
+      for (int i = (int) (position - windowStart); i < limit; i++) {
+        if (window.get(i) == '\n') return windowStart + i;
+      }
+      position = windowStart + limit;
+    }
+    return -1;
+  }
+
+  private int copy(long from, long to) throws IOException {
+    int length = Math.toIntExact(to - from);
+    if (line.length < length) line = Arrays.copyOf(line, Math.max(length, line.length * 2));
+    int copied = 0;
+    while (copied < length) {
+      map(from + copied);
+      int offset = (int) (from + copied - windowStart);
+      int chunk = Math.min(length - copied, window.limit() - offset);
+      window.get(offset, line, copied, chunk);
+      copied += chunk;
+    }
+    return length;
+  }
+
+  // Maps the window holding position, unless the current one already does
+  private void map(long position) throws IOException {
+    if (window != null && position >= windowStart && position < windowStart + window.limit()) {
+      return;
+    }
+    windowStart = position;
+    window =
+        channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+  }
+}
@@ -0,0 +1,103 @@
+package fuzz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import http.PayloadEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * One generated input: a valid payload of the schema with one to three {@link Mutation}s, sent in
+ * one of the encodings. Case {@code i} of a seed is always the same case, whichever worker builds
+ * it and in whatever order, so a run is reproduced by its seed alone.
+ */
+record FuzzCase(long index, String contentType, List<Mutation> mutations) {
+
+  static final String JSON = "application/json";
+  static final String FORM = "application/x-www-form-urlencoded";
+  static final List<String> CONTENT_TYPES = List.of(JSON, "text/xml", FORM);
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  static FuzzCase generate(FuzzSchema schema, long seed, long index) {
+    SplittableRandom random = new SplittableRandom(mix(seed + index * GOLDEN_GAMMA));
+    String contentType = CONTENT_TYPES.get(random.nextInt(CONTENT_TYPES.size()));
+    int count = 1 + random.nextInt(3);
+    List<Mutation> mutations = new ArrayList<>(count);
+    List<FuzzSchema.Field> fields = schema.fields();
+    for (int attempt = 0; attempt < count * 4 && mutations.size() < count; attempt++) {
+      FuzzSchema.Field field = fields.get(random.nextInt(fields.size()));
+      if (mutations.stream().noneMatch(m -> m.overlaps(field.path()))) {
+        mutations.add(Mutation.random(field, random));
+      }
+    }
+    return new FuzzCase(index, contentType, List.copyOf(mutations));
+  }
+
+  // Stafford's variant 13 of the MurmurHash3 finalizer, as used by SplittableRandom
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  Map<String, Object> payload(FuzzSchema schema) {
+    Map<String, Object> payload = schema.validPayload();
+    mutations.forEach(mutation -> mutation.apply(payload));
+    return payload;
+  }
+
+  /**
+   * The request body. Form bodies carry nested fields as dot paths ({@code
+   * bookingdates.checkin=...}), the way the service reads them.
+   */
+  byte[] encode(FuzzSchema schema) throws JsonProcessingException {
+    Map<String, Object> payload = payload(schema);
+    if (contentType.equals(FORM)) {
+      Map<String, Object> flat = new LinkedHashMap<>();
+      flatten(payload, "", flat);
+      payload = flat;
+    }
+    return PayloadEncoder.encodeUncached(payload, contentType);
+  }
+
+  private static void flatten(Map<?, ?> map, String prefix, Map<String, Object> fields) {
+    map.forEach(
+        (key, value) -> {
+          if (value instanceof Map<?, ?> nested && !nested.isEmpty()) {
+            flatten(nested, prefix + key + ".", fields);
+          } else {
+            fields.put(prefix + key, value);
+          }
+        });
+  }
+
+  /**
+   * Candidates one step smaller than this case, the biggest reductions first: each mutation left
+   * out, the JSON encoding instead of another one, then each mutation made smaller.
+   */
+  List<FuzzCase> simpler() {
+    List<FuzzCase> simpler = new ArrayList<>();
+    for (int i = 0; i < mutations.size(); i++) {
+      List<Mutation> fewer = new ArrayList<>(mutations);
+      fewer.remove(i);
+      simpler.add(new FuzzCase(index, contentType, List.copyOf(fewer)));
+    }
+    if (!contentType.equals(JSON)) simpler.add(new FuzzCase(index, JSON, mutations));
+    for (int i = 0; i < mutations.size(); i++) {
+      for (Mutation smaller : mutations.get(i).simpler()) {
+        List<Mutation> changed = new ArrayList<>(mutations);
+        changed.set(i, smaller);
+        simpler.add(new FuzzCase(index, contentType, List.copyOf(changed)));
+      }
+    }
+    return simpler;
+  }
+
+  @Override
+  public String toString() {
+    return "case " + index + " as " + contentType + " with " + mutations;
+  }
+}
@@ -0,0 +1,142 @@
+package fuzz;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe outcome of a fuzz run: case count, status-code distribution, failed cases and the
+ * shrunk reproducers of the first of them. A case fails when the exchange fails or the service
+ * answers with a 5xx status: whatever the input, a server must reject it rather than break on it.
+ */
+public final class FuzzResult {
+
+  /** A failing case shrunk as far as it still fails, with the outcome of its smallest form. */
+  record Reproducer(FuzzCase original, FuzzCase minimal, String outcome, String body) {
+    @Override
+    public String toString() {
+      return String.format(
+          "Case %d shrunk from %d to %d mutations, as %s with %s: %s%n  Body: %s",
+          original.index(),
+          original.mutations().size(),
+          minimal.mutations().size(),
+          minimal.contentType(),
+          minimal.mutations(),
+          outcome,
+          body);
+    }
+  }
+
+  private final String request;
+  private final long seed;
+  private final int shrinkMax;
+  private final LongAdder cases = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder unencodable = new LongAdder();
+  private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  // The lowest failing case indices, so the shrunk cases do not depend on the order of completion
+  private final NavigableSet<Long> failedCases = new ConcurrentSkipListSet<>();
+  private volatile List<Reproducer> reproducers = List.of();
+  private volatile long startNanos;
+  private volatile long endNanos;
+
+  FuzzResult(String request, long seed, int shrinkMax) {
+    this.request = request;
+    this.seed = seed;
+    this.shrinkMax = shrinkMax;
+  }
+
+  void start() {
+    startNanos = System.nanoTime();
+  }
+
+  void finish() {
+    endNanos = System.nanoTime();
+  }
+
+  void recordStatus(long index, int statusCode) {
+    cases.increment();
+    statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    if (statusCode >= 500) recordFailure(index);
+  }
+
+  void recordTransportFailure(long index) {
+    cases.increment();
+    recordFailure(index);
+  }
+
+  void recordUnencodable() {
+    cases.increment();
+    unencodable.increment();
+  }
+
+  private void recordFailure(long index) {
+    failures.increment();
+    if (shrinkMax <= 0) return;
+    failedCases.add(index);
+    if (failedCases.size() > shrinkMax) failedCases.pollLast();
+  }
+
+  /** Indices of the first failed cases, at most {@code fuzz.shrink.max}. */
+  List<Long> failedCases() {
+    return List.copyOf(failedCases);
+  }
+
+  void setReproducers(List<Reproducer> reproducers) {
+    this.reproducers = List.copyOf(reproducers);
+  }
+
+  public long seed() {
+    return seed;
+  }
+
+  public long cases() {
+    return cases.sum();
+  }
+
+  public long failures() {
+    return failures.sum();
+  }
+
+  /** Cases the encoder could not turn into a body of their Content-Type, so they were not sent. */
+  public long unencodable() {
+    return unencodable.sum();
+  }
+
+  /** The shrunk failing cases, each with its smallest form, outcome and body. */
+  public List<String> reproducers() {
+    return reproducers.stream().map(Reproducer::toString).toList();
+  }
+
+  public Duration elapsed() {
+    return Duration.ofNanos(endNanos - startNanos);
+  }
+
+  /** Status code to number of responses, sorted by status code. */
+  public Map<Integer, Long> statusDistribution() {
+    Map<Integer, Long> distribution = new TreeMap<>();
+    statusCounts.forEach((status, count) -> distribution.put(status, count.sum()));
+    return distribution;
+  }
+
+  @Override
+  public String toString() {
+    long nanos = endNanos - startNanos;
+    return String.format(
+        "Fuzz %s: %d cases (seed %d) in %.3f s (%.1f cases/s), failed: %d, not encodable: %d,"
+            + " status codes: %s",
+        request,
+        cases(),
+        seed,
+        nanos / 1e9,
+        nanos <= 0 ? 0 : cases() * 1e9 / nanos,
+        failures(),
+        unencodable(),
+        statusDistribution());
+  }
+}
@@ -0,0 +1,62 @@
+package fuzz;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import utils.ConfigReader;
+import utils.TestUtils;
+
+/** A request body the fuzzer knows how to mutate: its valid form and the fields it consists of. */
+enum FuzzSchema {
+  BOOKING(
+      List.of(
+          new Field("firstname", Kind.TEXT),
+          new Field("lastname", Kind.TEXT),
+          new Field("totalprice", Kind.NUMBER),
+          new Field("depositpaid", Kind.BOOLEAN),
+          new Field("bookingdates", Kind.OBJECT),
+          new Field("bookingdates.checkin", Kind.DATE),
+          new Field("bookingdates.checkout", Kind.DATE),
+          new Field("additionalneeds", Kind.TEXT))),
+  AUTH(List.of(new Field("username", Kind.TEXT), new Field("password", Kind.TEXT)));
+
+  /** What a field holds in the valid payload, which decides how it can be mutated. */
+  enum Kind {
+    TEXT,
+    NUMBER,
+    BOOLEAN,
+    DATE,
+    OBJECT
+  }
+
+  /** A field by its dot path, e.g. {@code bookingdates.checkin}. */
+  record Field(String path, Kind kind) {}
+
+  private final List<Field> fields;
+
+  FuzzSchema(List<Field> fields) {
+    this.fields = fields;
+  }
+
+  /** The schema of the bodies sent to {@code endpoint}: credentials for {@code /auth}. */
+  static FuzzSchema forEndpoint(String endpoint) {
+    return endpoint.startsWith("/auth") ? AUTH : BOOKING;
+  }
+
+  List<Field> fields() {
+    return fields;
+  }
+
+  /** A fresh, mutable valid payload. */
+  Map<String, Object> validPayload() {
+    return switch (this) {
+      case BOOKING -> TestUtils.createValidBookingPayload();
+      case AUTH -> {
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("username", ConfigReader.get("username"));
+        credentials.put("password", ConfigReader.get("password"));
+        yield credentials;
+      }
+    };
+  }
+}
@@ -0,0 +1,182 @@
+package fuzz;
+
+import cleanup.BookingCleanup;
+import http.HttpTransport;
+import http.OutgoingRequest;
+import http.RequestLimiter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Property-based fuzzing of the booking and auth endpoints. Cases are generated from a seed by
+ * {@code concurrency} virtual threads taking the next case index from a shared counter, so
+ * generation, encoding and sending run on all cores, and the set of cases does not depend on the
+ * scheduling. Exchanges are not logged into the scenario report, and the bookings that cases create
+ * are handed to the {@link BookingCleanup}.
+ *
+ * <p>After the run, each of the first failing cases is shrunk on its own virtual thread: each
+ * smaller candidate of {@link FuzzCase#simpler} is sent, and the first one that still fails
+ * replaces the case, until none does or {@value #SHRINK_STEPS} candidates have been tried. What is
+ * left is a minimal reproducer: the fewest mutations, in JSON if the encoding did not matter, with
+ * the shortest strings.
+ */
+public final class Fuzzer {
+
+  static final int SHRINK_STEPS = 200;
+  private static final int BODY_PREVIEW_CHARS = 500;
+
+  private Fuzzer() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /** Response to one case: its status code, or {@code -1} with the error if it got none. */
+  private record Outcome(int status, String error) {
+    boolean failed() {
+      return status < 0 || status >= 500;
+    }
+
+    @Override
+    public String toString() {
+      return status < 0 ? "failed with " + error : "answered " + status;
+    }
+  }
+
+  /**
+   * Sends {@code cases} generated cases to {@code url}, then shrinks up to {@code shrinkMax} of the
+   * failing ones.
+   *
+   * @param endpoint path the request goes to, which selects the payload schema
+   * @param headers headers sent with every case, besides its Content-Type
+   */
+  public static FuzzResult run(
+      HttpTransport transport,
+      String method,
+      String endpoint,
+      String url,
+      Map<String, String> headers,
+      int cases,
+      long seed,
+      int concurrency,
+      int shrinkMax) {
+    if (cases < 1 || concurrency < 1) {
+      throw new IllegalArgumentException("Case count and concurrency must be positive");
+    }
+    FuzzSchema schema = FuzzSchema.forEndpoint(endpoint);
+    Sender sender = new Sender(transport, schema, method, url, headers);
+    FuzzResult result = new FuzzResult(method + " " + endpoint, seed, shrinkMax);
+    AtomicLong next = new AtomicLong();
+
+    result.start();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> futures = new ArrayList<>(concurrency);
+      for (int i = 0; i < Math.min(cases, concurrency); i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  long index;
+                  while ((index = next.getAndIncrement()) < cases) {
+                    Outcome outcome = sender.send(FuzzCase.generate(schema, seed, index));
+                    if (outcome == null) {
+                      result.recordUnencodable();
+                    } else if (outcome.status() < 0) {
+                      result.recordTransportFailure(index);
+                    } else {
+                      result.recordStatus(index, outcome.status());
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      List<Future<FuzzResult.Reproducer>> shrinks = new ArrayList<>();
+      for (long index : result.failedCases()) {
+        shrinks.add(executor.submit(() -> shrink(sender, FuzzCase.generate(schema, seed, index))));
+      }
+      List<FuzzResult.Reproducer> reproducers = new ArrayList<>();
+      for (Future<FuzzResult.Reproducer> shrink : shrinks) {
+        reproducers.add(shrink.get());
+      }
+      result.setReproducers(reproducers);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Fuzz run was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Fuzz worker failed", e.getCause());
+    } finally {
+      result.finish();
+    }
+    return result;
+  }
+
+  private static FuzzResult.Reproducer shrink(Sender sender, FuzzCase failing) {
+    FuzzCase current = failing;
+    Outcome outcome = sender.send(current);
+    int budget = SHRINK_STEPS;
+    boolean smaller = true;
+    while (smaller && budget > 0) {
+      smaller = false;
+      for (FuzzCase candidate : current.simpler()) {
+        if (budget-- <= 0) break;
+        Outcome candidateOutcome = sender.send(candidate);
+        if (candidateOutcome != null && candidateOutcome.failed()) {
+          current = candidate;
+          outcome = candidateOutcome;
+          smaller = true;
+          break;
+        }
+      }
+    }
+    return new FuzzResult.Reproducer(
+        failing, current, String.valueOf(outcome), preview(sender, current));
+  }
+
+  private static String preview(Sender sender, FuzzCase fuzzCase) {
+    byte[] body = sender.encode(fuzzCase);
+    if (body == null) return "(not encodable)";
+    String text = new String(body, StandardCharsets.UTF_8);
+    return text.length() <= BODY_PREVIEW_CHARS
+        ? text
+        : text.substring(0, BODY_PREVIEW_CHARS) + "... (" + body.length + " bytes)";
+  }
+
+  /** Encodes and sends cases; shared by all workers, so it holds no mutable state. */
+  private record Sender(
+      HttpTransport transport,
+      FuzzSchema schema,
+      String method,
+      String url,
+      Map<String, String> headers) {
+
+    byte[] encode(FuzzCase fuzzCase) {
+      try {
+        return fuzzCase.encode(schema);
+      } catch (Exception e) {
+        // Not every mutation can be expressed in every encoding
+        return null;
+      }
+    }
+
+    /** Outcome of the case, or {@code null} if it could not be encoded and was not sent. */
+    Outcome send(FuzzCase fuzzCase) {
+      byte[] body = encode(fuzzCase);
+      if (body == null) return null;
+      Map<String, String> requestHeaders = new LinkedHashMap<>(headers);
+      requestHeaders.put("Content-Type", fuzzCase.contentType());
+      OutgoingRequest request = new OutgoingRequest(method, url, requestHeaders, body);
+      RequestLimiter.Sent sent = RequestLimiter.get().send(transport, request, null);
+      if (sent.failure() != null) return new Outcome(-1, String.valueOf(sent.failure()));
+      BookingCleanup.get().addCreated(request, sent.response());
+      return new Outcome(sent.response().statusCode(), null);
+    }
+  }
+}
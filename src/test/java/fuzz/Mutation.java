@@ -0,0 +1,191 @@
+package fuzz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import fuzz.FuzzSchema.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * One change to a valid payload: a field dropped, set to null, or set to a value of the wrong type,
+ * a boundary value, a unicode string or an oversize string.
+ *
+ * @param value the new value; unused for {@link Type#DROP}
+ */
+record Mutation(Type type, String path, Object value) {
+
+  enum Type {
+    DROP,
+    NULL,
+    WRONG_TYPE,
+    BOUNDARY,
+    UNICODE,
+    OVERSIZE
+  }
+
+  private static final ObjectMapper JSON =
+      JsonMapper.builder().enable(JsonWriteFeature.ESCAPE_NON_ASCII).build();
+
+  // Multi-unit and invisible characters, bidi overrides, noncharacters, lone surrogates, lookalikes
+  // and strings that mean something to other parsers
+  private static final List<String> UNICODE_SAMPLES =
+      List.of(
+          "\uD83C\uDFE8",
+          "\uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC67",
+          "\u0645\u0631\u062D\u0628\u0627",
+          "\u674E\u5C0F\u9F8D",
+          "e\u0301",
+          "\u200B",
+          "\u202E",
+          "\uFEFF",
+          "\u0000",
+          "\u0007",
+          "\uD800",
+          "\uFFFF",
+          "\uFF21",
+          "\uFF12\uFF10\uFF12\uFF14",
+          "<>&\"'",
+          "' OR 1=1 --",
+          "${jndi:ldap://x}",
+          "%00",
+          "\r\n");
+
+  private static final List<Integer> OVERSIZE_LENGTHS = List.of(1_024, 16_384, 150_000);
+
+  /** A random mutation that fits the field. */
+  static Mutation random(Field field, SplittableRandom random) {
+    List<Type> types =
+        new ArrayList<>(List.of(Type.DROP, Type.NULL, Type.WRONG_TYPE, Type.BOUNDARY));
+    if (field.kind() == FuzzSchema.Kind.TEXT || field.kind() == FuzzSchema.Kind.DATE) {
+      types.add(Type.UNICODE);
+      types.add(Type.OVERSIZE);
+    }
+    Type type = types.get(random.nextInt(types.size()));
+    String path = field.path();
+    return switch (type) {
+      case DROP, NULL -> new Mutation(type, path, null);
+      case WRONG_TYPE -> new Mutation(type, path, pick(wrongTypes(field), random));
+      case BOUNDARY -> new Mutation(type, path, pick(boundaries(field), random));
+      case UNICODE -> {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+          text.append(
+              random.nextBoolean()
+                  ? pick(UNICODE_SAMPLES, random)
+                  : Character.toString(random.nextInt(0x20, 0x10FFFF)));
+        }
+        yield new Mutation(type, path, text.toString());
+      }
+      case OVERSIZE -> {
+        int length = pick(OVERSIZE_LENGTHS, random);
+        String unit = random.nextBoolean() ? "A" : pick(UNICODE_SAMPLES, random);
+        yield new Mutation(type, path, unit.repeat(Math.max(1, length / unit.length())));
+      }
+    };
+  }
+
+  private static <T> T pick(List<T> values, SplittableRandom random) {
+    return values.get(random.nextInt(values.size()));
+  }
+
+  private static List<Object> wrongTypes(Field field) {
+    return switch (field.kind()) {
+      case TEXT -> List.of(42, -1.5, true, List.of("a"), Map.of("a", "b"));
+      case NUMBER -> List.of("111", "abc", 1.5, true, List.of(1), Map.of());
+      case BOOLEAN -> List.of("true", "yes", 1, 0, List.of());
+      case DATE -> List.of(20240101, true, List.of("2024-01-01"), Map.of("date", "2024-01-01"));
+      case OBJECT -> List.of("2024-01-01", 1, true, List.of());
+    };
+  }
+
+  private static List<Object> boundaries(Field field) {
+    return switch (field.kind()) {
+      case TEXT -> List.of("", " ", "null", "0", "a");
+      case NUMBER ->
+          List.of(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, 1e308, -0.0, 0.001);
+      case BOOLEAN -> List.of("", "TRUE", "1", "null");
+      case DATE ->
+          List.of(
+              "2024-02-29",
+              "2023-02-29",
+              "0000-01-01",
+              "9999-12-31",
+              "1970-01-01",
+              "2024-13-01",
+              "2024-01-32",
+              "2024-1-1",
+              "2024/01/01",
+              "01-01-2024",
+              "2024-01-01T00:00:00Z",
+              "+10000-01-01",
+              "");
+      case OBJECT -> List.of(Map.of(), Map.of("unexpected", "field"));
+    };
+  }
+
+  /** Applies the mutation to {@code payload}, creating maps on the way to nested fields. */
+  @SuppressWarnings("unchecked")
+  void apply(Map<String, Object> payload) {
+    String[] parts = path.split("\\.");
+    Map<String, Object> current = payload;
+    for (int i = 0; i < parts.length - 1; i++) {
+      Object next = current.get(parts[i]);
+      if (!(next instanceof Map)) {
+        next = new HashMap<String, Object>();
+        current.put(parts[i], next);
+      }
+      current = (Map<String, Object>) next;
+    }
+    if (type == Type.DROP) {
+      current.remove(parts[parts.length - 1]);
+    } else {
+      current.put(parts[parts.length - 1], value);
+    }
+  }
+
+  /** Whether this mutation touches the field at {@code otherPath}, its parent or a child of it. */
+  boolean overlaps(String otherPath) {
+    return path.equals(otherPath)
+        || path.startsWith(otherPath + ".")
+        || otherPath.startsWith(path + ".");
+  }
+
+  /** Smaller versions of this mutation, tried while shrinking a failing case; the biggest first. */
+  List<Mutation> simpler() {
+    if (!(value instanceof String text) || text.codePointCount(0, text.length()) < 2) {
+      return List.of();
+    }
+    int codePoints = text.codePointCount(0, text.length());
+    int half = text.offsetByCodePoints(0, codePoints / 2);
+    List<Mutation> simpler = new ArrayList<>();
+    simpler.add(new Mutation(type, path, text.substring(0, half)));
+    simpler.add(new Mutation(type, path, text.substring(half)));
+    return simpler;
+  }
+
+  @Override
+  public String toString() {
+    return switch (type) {
+      case DROP -> "drop " + path;
+      case NULL -> path + " = null";
+      case OVERSIZE -> path + " = " + ((String) value).length() + " chars " + describe(value);
+      default -> path + " = " + describe(value) + " (" + type.name().toLowerCase() + ")";
+    };
+  }
+
+  // JSON notation with escaped non-ASCII shows types and invisible characters unambiguously
+  private static String describe(Object value) {
+    String json;
+    try {
+      json = JSON.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      json = String.valueOf(value);
+    }
+    return json.length() > 80 ? json.substring(0, 80) + "..." : json;
+  }
+}
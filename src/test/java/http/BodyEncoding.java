@@ -0,0 +1,59 @@
+package http;
+
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+/** Encoding rules shared by all transports, matching what RestAssured puts on the wire. */
+public final class BodyEncoding {
+
+  private static final Set<String> ASCII_COMPATIBLE =
+      Set.of("UTF-8", "ISO-8859-1", "US-ASCII", "windows-1252");
+
+  private BodyEncoding() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /**
+   * Returns the charset declared in a Content-Type header, or ISO-8859-1 (RestAssured's default
+   * content charset) when none is declared.
+   */
+  public static Charset charsetOf(String contentType) {
+    if (contentType != null) {
+      for (String param : contentType.split(";")) {
+        String[] pair = param.trim().split("=", 2);
+        if (pair.length == 2 && "charset".equalsIgnoreCase(pair[0].trim())) {
+          return Charset.forName(pair[1].trim().replace("\"", ""));
+        }
+      }
+    }
+    return StandardCharsets.ISO_8859_1;
+  }
+
+  /** Whether ASCII text is encoded one byte per character, unchanged, in {@code charset}. */
+  public static boolean isAsciiCompatible(Charset charset) {
+    return ASCII_COMPATIBLE.contains(charset.name());
+  }
+
+  /**
+   * Encodes form parameters as {@code application/x-www-form-urlencoded}: spaces become {@code
+   * %20}, and parameters with a {@code null} value are sent as a bare key.
+   */
+  public static byte[] formUrlEncode(Map<String, ?> params, Charset charset) {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, ?> param : params.entrySet()) {
+      if (!sb.isEmpty()) sb.append('&');
+      sb.append(urlEncode(param.getKey(), charset));
+      if (param.getValue() != null) {
+        sb.append('=').append(urlEncode(String.valueOf(param.getValue()), charset));
+      }
+    }
+    return sb.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  static String urlEncode(String value, Charset charset) {
+    return URLEncoder.encode(value, charset).replace("+", "%20");
+  }
+}
@@ -0,0 +1,197 @@
+package http;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+import utils.ConfigReader;
+
+/**
+ * Process-wide pool of keep-alive connections shared by every RestAssured request, so scenarios
+ * reuse TCP/TLS connections to {@code base.url} instead of performing a new handshake per step.
+ *
+ * <p>RestAssured only accepts the Apache {@link DefaultHttpClient}, hence the (deprecated) 4.x
+ * connection manager. Both the client and the manager are thread-safe and are shared by parallel
+ * scenarios. Pool sizing, keep-alive, idle eviction and timeouts come from {@code
+ * config.properties}.
+ */
+@SuppressWarnings("deprecation")
+public final class ConnectionPool {
+
+  private static final ConnectionPool INSTANCE = new ConnectionPool();
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder connectionsOpened = new LongAdder();
+  // Handshake time spent by the current thread since the last takeConnectNanos() call
+  private final ThreadLocal<long[]> connectNanos = ThreadLocal.withInitial(() -> new long[1]);
+  private final PoolingClientConnectionManager manager;
+  private final DefaultHttpClient client;
+  private final RestAssuredConfig config;
+
+  private ConnectionPool() {
+    manager =
+        new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault()) {
+          @Override
+          protected ClientConnectionOperator createConnectionOperator(SchemeRegistry registry) {
+            return new CountingConnectionOperator(registry);
+          }
+        };
+    manager.setMaxTotal(ConfigReader.getInt("http.pool.max.total"));
+    manager.setDefaultMaxPerRoute(ConfigReader.getInt("http.pool.max.per.route"));
+
+    client = new DefaultHttpClient(manager);
+    HttpParams params = client.getParams();
+    HttpConnectionParams.setConnectionTimeout(
+        params, ConfigReader.getInt("http.connect.timeout.ms"));
+    HttpConnectionParams.setSoTimeout(params, ConfigReader.getInt("http.read.timeout.ms"));
+    HttpConnectionParams.setStaleCheckingEnabled(params, true);
+
+    long defaultKeepAliveMs =
+        TimeUnit.SECONDS.toMillis(ConfigReader.getInt("http.keepalive.seconds"));
+    client.setKeepAliveStrategy(
+        (response, context) -> keepAliveMillis(response, defaultKeepAliveMs));
+    client.addRequestInterceptor((request, context) -> requests.increment());
+
+    config =
+        RestAssuredConfig.config()
+            .httpClient(
+                HttpClientConfig.httpClientConfig()
+                    .reuseHttpClientInstance()
+                    .httpClientFactory(() -> client));
+
+    startIdleConnectionEvictor(ConfigReader.getInt("http.pool.idle.timeout.seconds"));
+  }
+
+  public static ConnectionPool get() {
+    return INSTANCE;
+  }
+
+  /** Base RestAssured configuration routing requests through the shared pool. */
+  public RestAssuredConfig config() {
+    return config;
+  }
+
+  /**
+   * Returns and resets the time the calling thread spent opening connections. Apache requests run
+   * on the caller's thread, so reading it before and after an exchange yields that exchange's
+   * connect time (zero when a pooled connection was reused).
+   */
+  public long takeConnectNanos() {
+    long[] holder = connectNanos.get();
+    long nanos = holder[0];
+    holder[0] = 0;
+    return nanos;
+  }
+
+  /** The pooled client, for requests RestAssured cannot send (e.g. streamed bodies). */
+  DefaultHttpClient client() {
+    return client;
+  }
+
+  public Stats stats() {
+    PoolStats total = manager.getTotalStats();
+    return new Stats(
+        requests.sum(),
+        connectionsOpened.sum(),
+        total.getLeased(),
+        total.getPending(),
+        total.getAvailable(),
+        total.getMax());
+  }
+
+  // Honours the server's "Keep-Alive: timeout=N" hint, otherwise falls back to the configured value
+  private static long keepAliveMillis(org.apache.http.HttpResponse response, long defaultMs) {
+    var it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+    while (it.hasNext()) {
+      HeaderElement element = it.nextElement();
+      if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+        try {
+          return Long.parseLong(element.getValue()) * 1000;
+        } catch (NumberFormatException ignored) {
+        }
+      }
+    }
+    return defaultMs;
+  }
+
+  private void startIdleConnectionEvictor(int idleTimeoutSeconds) {
+    ScheduledExecutorService evictor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "http-pool-evictor");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long period = Math.max(1, idleTimeoutSeconds / 2);
+    evictor.scheduleAtFixedRate(
+        () -> {
+          manager.closeExpiredConnections();
+          manager.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+        },
+        period,
+        period,
+        TimeUnit.SECONDS);
+  }
+
+  /** Counts every physical connection the pool opens, i.e. every TCP (and TLS) handshake. */
+  private class CountingConnectionOperator extends DefaultClientConnectionOperator {
+    CountingConnectionOperator(SchemeRegistry registry) {
+      super(registry);
+    }
+
+    @Override
+    public void openConnection(
+        OperatedClientConnection conn,
+        HttpHost target,
+        InetAddress local,
+        HttpContext context,
+        HttpParams params)
+        throws IOException {
+      connectionsOpened.increment();
+      long start = System.nanoTime();
+      try {
+        super.openConnection(conn, target, local, context, params);
+      } finally {
+        connectNanos.get()[0] += System.nanoTime() - start;
+      }
+    }
+  }
+
+  /**
+   * Snapshot of the pool counters; the reuse ratio is the share of requests without a handshake.
+   */
+  public record Stats(
+      long requests, long connectionsOpened, int leased, int pending, int available, int max) {
+
+    public double reuseRatio() {
+      return requests == 0 ? 0 : Math.max(0, 1 - (double) connectionsOpened / requests);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "Connection pool: requests=%d, connections opened=%d, reuse ratio=%.1f%%, leased=%d,"
+              + " pending=%d, available=%d, max=%d",
+          requests, connectionsOpened, reuseRatio() * 100, leased, pending, available, max);
+    }
+  }
+}
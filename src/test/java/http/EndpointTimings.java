@@ -0,0 +1,129 @@
+package http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Run-wide latency percentiles per endpoint, fed by every logged exchange and written as a JSON
+ * summary at the end of the run. Endpoints are keyed by method and path, with numeric path segments
+ * collapsed to {@code {id}} so {@code GET /booking/12} and {@code GET /booking/34} share a series.
+ * Time spent in the {@link RequestLimiter} before sending is kept in a series of its own, since it
+ * says nothing about the server.
+ */
+public final class EndpointTimings {
+
+  private static final EndpointTimings INSTANCE = new EndpointTimings();
+  private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+  private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+  private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+  private EndpointTimings() {}
+
+  public static EndpointTimings get() {
+    return INSTANCE;
+  }
+
+  public void record(String method, String url, ExchangeTiming timing) {
+    series.computeIfAbsent(key(method, url), k -> new Series()).record(timing);
+  }
+
+  public void recordLimiterWait(String method, String url, Duration waited) {
+    series.computeIfAbsent(key(method, url), k -> new Series()).recordLimiterWait(waited);
+  }
+
+  static String key(String method, String url) {
+    return method + " " + path(url);
+  }
+
+  /** Path of {@code url} with numeric segments collapsed to {@code {id}}. */
+  public static String path(String url) {
+    String path;
+    try {
+      path = URI.create(url).getRawPath();
+    } catch (IllegalArgumentException e) {
+      path = url;
+    }
+    if (path == null || path.isEmpty()) path = "/";
+    return NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+  }
+
+  /** Writes the summary to {@code file}; does nothing if no exchange was recorded. */
+  public void writeJson(Path file) {
+    if (series.isEmpty()) return;
+    Map<String, Object> endpoints = new TreeMap<>();
+    series.forEach((key, s) -> endpoints.put(key, s.summary()));
+    try {
+      Files.createDirectories(file.getParent());
+      new ObjectMapper()
+          .enable(SerializationFeature.INDENT_OUTPUT)
+          .writeValue(file.toFile(), Map.of("unit", "ms", "endpoints", endpoints));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write timing summary to " + file, e);
+    }
+  }
+
+  /** Microsecond histograms of one endpoint's total time, time to first byte and limiter wait. */
+  private static final class Series {
+    private final Histogram total = new ConcurrentHistogram(3);
+    private final Histogram timeToFirstByte = new ConcurrentHistogram(3);
+    private final Histogram limiterWait = new ConcurrentHistogram(3);
+
+    void record(ExchangeTiming timing) {
+      total.recordValue(micros(timing.total()));
+      if (timing.timeToFirstByte() != null) {
+        timeToFirstByte.recordValue(micros(timing.timeToFirstByte()));
+      }
+    }
+
+    void recordLimiterWait(Duration waited) {
+      limiterWait.recordValue(micros(waited));
+    }
+
+    Map<String, Object> summary() {
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("count", total.getTotalCount());
+      summary.put("total", percentiles(total));
+      if (timeToFirstByte.getTotalCount() > 0) {
+        summary.put("timeToFirstByte", percentiles(timeToFirstByte));
+      }
+      if (limiterWait.getTotalCount() > 0) {
+        summary.put("limiterWait", percentiles(limiterWait));
+      }
+      return summary;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+      Map<String, Double> values = new LinkedHashMap<>();
+      values.put("min", millis(histogram.getMinValue()));
+      values.put("mean", Math.round(histogram.getMean()) / 1000.0);
+      for (double p : PERCENTILES) {
+        values.put("p" + (int) p, millis(histogram.getValueAtPercentile(p)));
+      }
+      values.put("max", millis(histogram.getMaxValue()));
+      return values;
+    }
+
+    private static long micros(Duration duration) {
+      return Math.max(0, TimeUnit.NANOSECONDS.toMicros(duration.toNanos()));
+    }
+
+    private static double millis(long micros) {
+      return micros / 1000.0;
+    }
+  }
+}
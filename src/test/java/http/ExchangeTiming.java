@@ -0,0 +1,38 @@
+package http;
+
+import java.time.Duration;
+
+/**
+ * Timing breakdown of a single request/response exchange. Phases a transport cannot observe are
+ * {@code null}; a {@link Duration#ZERO} connect time means a pooled connection was reused.
+ *
+ * @param total time from sending the request until the whole response body was received
+ * @param connect time spent opening the TCP (and TLS) connection
+ * @param timeToFirstByte time from sending the request until the response headers arrived
+ * @param download time spent reading the response body after the headers
+ */
+public record ExchangeTiming(
+    Duration total, Duration connect, Duration timeToFirstByte, Duration download) {
+
+  public static ExchangeTiming of(
+      long startNanos, Long connectNanos, long headersNanos, long endNanos) {
+    return new ExchangeTiming(
+        Duration.ofNanos(endNanos - startNanos),
+        connectNanos == null ? null : Duration.ofNanos(connectNanos),
+        Duration.ofNanos(headersNanos - startNanos),
+        Duration.ofNanos(endNanos - headersNanos));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("total ").append(millis(total));
+    if (connect != null) sb.append(", connect ").append(millis(connect));
+    if (timeToFirstByte != null) sb.append(", TTFB ").append(millis(timeToFirstByte));
+    if (download != null) sb.append(", download ").append(millis(download));
+    return sb.toString();
+  }
+
+  private static String millis(Duration duration) {
+    return String.format("%.1f ms", duration.toNanos() / 1e6);
+  }
+}
@@ -0,0 +1,58 @@
+package http;
+
+import io.restassured.response.Response;
+import java.util.concurrent.CompletableFuture;
+import utils.ConfigReader;
+import utils.RequestLoggingFilter;
+
+/**
+ * Sends {@link OutgoingRequest}s and returns RestAssured {@link Response}s, so step definitions and
+ * assertions work the same regardless of the HTTP client underneath. The backend is selected with
+ * the {@code http.transport} configuration key ({@code restassured} or {@code jdk}).
+ *
+ * <p>Implementations are shared by all scenarios and must be thread-safe.
+ */
+public interface HttpTransport {
+
+  /**
+   * Sends the request and waits for the response.
+   *
+   * @param logger logs the exchange into the scenario report, or {@code null} to skip logging
+   */
+  Response send(OutgoingRequest request, RequestLoggingFilter logger);
+
+  /** Sends the request without blocking the caller. */
+  CompletableFuture<Response> sendAsync(OutgoingRequest request, RequestLoggingFilter logger);
+
+  /** Connection statistics for the scenario report, or {@code null} if the backend has none. */
+  default String connectionStats() {
+    return null;
+  }
+
+  /** Returns the process-wide transport selected by {@code http.transport}. */
+  static HttpTransport configured() {
+    return Holder.INSTANCE;
+  }
+
+  final class Holder {
+    private static final HttpTransport INSTANCE = create(ConfigReader.get("http.transport"));
+
+    private Holder() {}
+
+    private static HttpTransport create(String name) {
+      HttpTransport transport =
+          switch (name.toLowerCase()) {
+            case "restassured" -> new RestAssuredTransport();
+            case "jdk" -> new JdkHttpTransport();
+            default -> throw new IllegalArgumentException("Unknown http.transport: " + name);
+          };
+      if (Boolean.parseBoolean(ConfigReader.get("jfr"))) {
+        transport = new RecordingTransport(transport);
+      }
+      if (Boolean.parseBoolean(ConfigReader.get("metrics"))) {
+        transport = new MeteredTransport(transport);
+      }
+      return transport;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package http;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import utils.ConfigReader;
+import utils.RequestLoggingFilter;
+
+/**
+ * Transport backed by {@link java.net.http.HttpClient}. It negotiates HTTP/2 (ALPN over TLS, h2c
+ * upgrade over plain HTTP) when {@code http.version} is {@code HTTP_2}, multiplexing concurrent
+ * requests over a single connection, and falls back to HTTP/1.1 for servers that do not support it.
+ * Responses are converted into RestAssured responses so existing assertions keep working.
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+  // Headers managed by java.net.http itself; setting them explicitly is rejected
+  private static final Set<String> RESTRICTED_HEADERS =
+      Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+  private final HttpClient client;
+  private final Duration requestTimeout;
+
+  public JdkHttpTransport() {
+    client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.valueOf(ConfigReader.get("http.version")))
+            .connectTimeout(Duration.ofMillis(ConfigReader.getInt("http.connect.timeout.ms")))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(executor())
+            .build();
+    requestTimeout = Duration.ofMillis(ConfigReader.getInt("http.read.timeout.ms"));
+  }
+
+  // Before JDK 24 (JEP 491) a virtual thread blocked inside a synchronized block pins its carrier.
+  // The in-process stub's HttpServer reads request bodies that way, so on a single core the stub
+  // could pin the only carrier while waiting for a streamed body that the client's virtual threads
+  // then never got to publish. Older JDKs therefore publish and receive on platform threads.
+  private static ExecutorService executor() {
+    return Runtime.version().feature() >= 24
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("jdk-http-", 0).daemon().factory());
+  }
+
+  @Override
+  public Response send(OutgoingRequest request, RequestLoggingFilter logger) {
+    try {
+      return sendAsync(request, logger).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException io) throw new UncheckedIOException(io);
+      if (e.getCause() instanceof RuntimeException re) throw re;
+      throw e;
+    }
+  }
+
+  @Override
+  public CompletableFuture<Response> sendAsync(
+      OutgoingRequest request, RequestLoggingFilter logger) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(URI.create(request.url()))
+            .timeout(requestTimeout)
+            .method(request.method(), bodyPublisher(request));
+    // Lets a server reject an oversized streamed body before it is sent
+    if (request.streamingBody() != null) builder.expectContinue(true);
+    request
+        .headers()
+        .forEach(
+            (name, value) -> {
+              if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) builder.header(name, value);
+            });
+
+    if (logger != null) {
+      logger.logRequest(
+          request.method(),
+          request.url(),
+          request.restAssuredHeaders(),
+          request.streamingBody() != null ? request.streamingBody() : request.body());
+    }
+
+    // java.net.http exposes no connection events, so only TTFB and download time are measured
+    AtomicLong headersReceived = new AtomicLong();
+    HttpResponse.BodyHandler<byte[]> bodyHandler =
+        responseInfo -> {
+          headersReceived.set(System.nanoTime());
+          return HttpResponse.BodySubscribers.ofByteArray();
+        };
+    long start = System.nanoTime();
+    return client
+        .sendAsync(builder.build(), bodyHandler)
+        .thenApply(
+            httpResponse -> {
+              long end = System.nanoTime();
+              Response response = toResponse(httpResponse);
+              if (logger != null) {
+                logger.logResponse(
+                    response, ExchangeTiming.of(start, null, headersReceived.get(), end));
+              }
+              return response;
+            });
+  }
+
+  private static HttpRequest.BodyPublisher bodyPublisher(OutgoingRequest request) {
+    StreamingBody streamingBody = request.streamingBody();
+    if (streamingBody != null) {
+      return HttpRequest.BodyPublishers.fromPublisher(
+          HttpRequest.BodyPublishers.ofInputStream(streamingBody::newInputStream),
+          streamingBody.length());
+    }
+    return request.body() == null
+        ? HttpRequest.BodyPublishers.noBody()
+        : HttpRequest.BodyPublishers.ofByteArray(request.body());
+  }
+
+  private static Response toResponse(HttpResponse<byte[]> httpResponse) {
+    List<Header> headers = new ArrayList<>();
+    httpResponse
+        .headers()
+        .map()
+        .forEach((name, values) -> values.forEach(value -> headers.add(new Header(name, value))));
+
+    String version = httpResponse.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+    ResponseBuilder builder =
+        new ResponseBuilder()
+            .setStatusCode(httpResponse.statusCode())
+            .setStatusLine(version + " " + httpResponse.statusCode())
+            .setHeaders(new Headers(headers))
+            .setBody(httpResponse.body());
+    httpResponse.headers().firstValue("Content-Type").ifPresent(builder::setContentType);
+    return builder.build();
+  }
+}
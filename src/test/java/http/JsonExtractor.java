@@ -0,0 +1,156 @@
+package http;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jfr.SerializationEvent;
+
+/**
+ * Reads values out of a JSON response body with Jackson's streaming parser, without building the
+ * document. Paths are dot-separated object keys: {@code token} or {@code booking.firstname} select
+ * one value, {@code booking.*} selects every scalar below {@code booking}, keyed by its full path.
+ * Subtrees no requested path reaches are skipped unread, and parsing stops as soon as every path
+ * has been resolved.
+ */
+public final class JsonExtractor {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private JsonExtractor() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /** Parses the whole body into a tree. */
+  public static JsonNode readTree(byte[] json) {
+    var event = SerializationEvent.start("parse", "JSON");
+    try {
+      JsonNode root = MAPPER.readTree(json);
+      event.finish(json.length);
+      return root;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Response body is not valid JSON", e);
+    }
+  }
+
+  /**
+   * Returns the values at {@code paths}, in document order. Scalars are returned as {@code String},
+   * {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} or {@code null}; an object or
+   * array selected by an exact path is returned as a {@link JsonNode}. Paths missing from the
+   * document have no entry.
+   */
+  public static Map<String, Object> extract(byte[] json, Collection<String> paths) {
+    var event = SerializationEvent.start("extract", "JSON");
+    Map<String, Object> values = new LinkedHashMap<>();
+    PathSelection selection = new PathSelection(paths);
+    try (JsonParser parser = MAPPER.createParser(json)) {
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        readObject(parser, "", selection, values);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Response body is not valid JSON", e);
+    }
+    event.finish(json.length);
+    return values;
+  }
+
+  /** Same as {@link #extract(byte[], Collection)}, reading from an already parsed tree. */
+  public static Map<String, Object> extract(JsonNode root, Collection<String> paths) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (String path : paths) {
+      boolean wildcard = path.endsWith(".*");
+      String target = wildcard ? path.substring(0, path.length() - 2) : path;
+      JsonNode node = root.at("/" + target.replace('.', '/'));
+      if (node.isMissingNode()) continue;
+      if (wildcard) {
+        addLeaves(node, target, values);
+      } else {
+        values.put(target, scalar(node));
+      }
+    }
+    return values;
+  }
+
+  private static void addLeaves(JsonNode node, String prefix, Map<String, Object> values) {
+    for (Map.Entry<String, JsonNode> field : node.properties()) {
+      String path = prefix + "." + field.getKey();
+      if (field.getValue().isObject()) {
+        addLeaves(field.getValue(), path, values);
+      } else {
+        values.put(path, scalar(field.getValue()));
+      }
+    }
+  }
+
+  private static Object scalar(JsonNode node) {
+    if (node.isTextual()) return node.textValue();
+    if (node.isNumber()) return node.numberValue();
+    if (node.isBoolean()) return node.booleanValue();
+    if (node.isNull()) return null;
+    return node;
+  }
+
+  /** Returns the keys of the top-level object, in document order; empty for any other document. */
+  public static List<String> topLevelKeys(byte[] json) {
+    var event = SerializationEvent.start("keys", "JSON");
+    List<String> keys = new ArrayList<>();
+    try (JsonParser parser = MAPPER.createParser(json)) {
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          keys.add(parser.currentName());
+          parser.nextToken();
+          parser.skipChildren();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Response body is not valid JSON", e);
+    }
+    event.finish(json.length);
+    return keys;
+  }
+
+  /**
+   * Reads the object the parser is positioned at; returns {@code false} once all paths are done.
+   */
+  private static boolean readObject(
+      JsonParser parser, String prefix, PathSelection selection, Map<String, Object> values)
+      throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String path = prefix.isEmpty() ? parser.currentName() : prefix + "." + parser.currentName();
+      JsonToken token = parser.nextToken();
+      boolean exact = selection.isExact(path);
+
+      if (token == JsonToken.START_OBJECT && !exact) {
+        if (selection.reaches(path)) {
+          if (!readObject(parser, path, selection, values)) return false;
+          if (selection.isWildcard(path) && selection.resolve()) return false;
+        } else {
+          parser.skipChildren();
+        }
+      } else if (exact || selection.covers(path)) {
+        values.put(path, token.isStructStart() ? MAPPER.readTree(parser) : scalar(parser, token));
+        if (exact && selection.resolve()) return false;
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return true;
+  }
+
+  private static Object scalar(JsonParser parser, JsonToken token) throws IOException {
+    return switch (token) {
+      case VALUE_STRING -> parser.getText();
+      case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+      case VALUE_TRUE -> Boolean.TRUE;
+      case VALUE_FALSE -> Boolean.FALSE;
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,58 @@
+package http;
+
+import io.restassured.response.Response;
+import java.util.concurrent.CompletableFuture;
+import metrics.MetricsRegistry;
+import utils.RequestLoggingFilter;
+
+/**
+ * Feeds every exchange of the wrapped transport into the {@link MetricsRegistry}: the logged
+ * exchanges of the step definitions as well as the unlogged ones of load runs. Used when {@code
+ * metrics=true}.
+ */
+final class MeteredTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+  private final MetricsRegistry registry = MetricsRegistry.get();
+
+  MeteredTransport(HttpTransport delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Response send(OutgoingRequest request, RequestLoggingFilter logger) {
+    String endpoint = EndpointTimings.path(request.url());
+    registry.started(request.method(), endpoint);
+    long start = System.nanoTime();
+    Integer status = null;
+    try {
+      Response response = delegate.send(request, logger);
+      status = response.statusCode();
+      return response;
+    } finally {
+      registry.completed(request.method(), endpoint, status, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Response> sendAsync(
+      OutgoingRequest request, RequestLoggingFilter logger) {
+    String endpoint = EndpointTimings.path(request.url());
+    registry.started(request.method(), endpoint);
+    long start = System.nanoTime();
+    return delegate
+        .sendAsync(request, logger)
+        .whenComplete(
+            (response, error) ->
+                registry.completed(
+                    request.method(),
+                    endpoint,
+                    response == null ? null : response.statusCode(),
+                    System.nanoTime() - start));
+  }
+
+  @Override
+  public String connectionStats() {
+    return delegate.connectionStats();
+  }
+}
@@ -0,0 +1,50 @@
+package http;
+
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport-independent description of a single HTTP request. The body is already encoded, so every
+ * {@link HttpTransport} sends exactly the same bytes.
+ *
+ * @param method upper-case HTTP method
+ * @param url absolute request URL
+ * @param headers request headers in the order they should be sent
+ * @param body encoded request body, or {@code null} for requests without a body
+ * @param streamingBody body generated while it is sent, used instead of {@code body} when not null
+ */
+public record OutgoingRequest(
+    String method,
+    String url,
+    Map<String, String> headers,
+    byte[] body,
+    StreamingBody streamingBody) {
+
+  public OutgoingRequest {
+    method = method.toUpperCase();
+    headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+    if (body != null && streamingBody != null) {
+      throw new IllegalArgumentException("A request has either a body or a streaming body");
+    }
+  }
+
+  public OutgoingRequest(String method, String url, Map<String, String> headers, byte[] body) {
+    this(method, url, headers, body, null);
+  }
+
+  /** The headers as RestAssured {@link Headers}, for logging. */
+  public Headers restAssuredHeaders() {
+    List<Header> list = new ArrayList<>();
+    headers.forEach((name, value) -> list.add(new Header(name, value)));
+    return new Headers(list);
+  }
+
+  public String contentType() {
+    return headers.get("Content-Type");
+  }
+}
@@ -0,0 +1,56 @@
+package http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dot-separated paths requested from a response body, shared by {@link JsonExtractor} and {@link
+ * XmlExtractor}. A path ending in {@code .*} is a wildcard selecting every scalar below its prefix;
+ * any other path selects one value. {@link #remaining} counts the paths not yet resolved, so the
+ * extractors can stop reading as soon as it drops to zero.
+ */
+final class PathSelection {
+
+  final List<String> exact = new ArrayList<>();
+  final List<String> wildcards = new ArrayList<>();
+  int remaining;
+
+  PathSelection(Collection<String> paths) {
+    for (String path : paths) {
+      if (path.endsWith(".*")) {
+        wildcards.add(path.substring(0, path.length() - 2));
+      } else {
+        exact.add(path);
+      }
+    }
+    remaining = exact.size() + wildcards.size();
+  }
+
+  boolean isExact(String path) {
+    return exact.contains(path);
+  }
+
+  boolean isWildcard(String path) {
+    return wildcards.contains(path);
+  }
+
+  /** Whether some requested path lies below {@code path}. */
+  boolean reaches(String path) {
+    String below = path + ".";
+    for (String p : exact) if (p.startsWith(below)) return true;
+    for (String w : wildcards) if (w.equals(path) || w.startsWith(below)) return true;
+    return covers(path);
+  }
+
+  /** Whether {@code path} lies below a wildcard prefix. */
+  boolean covers(String path) {
+    for (String w : wildcards) if (path.startsWith(w + ".")) return true;
+    return false;
+  }
+
+  /** Marks one path as resolved; returns {@code true} once all of them are. */
+  boolean resolve() {
+    return --remaining == 0;
+  }
+}
@@ -0,0 +1,149 @@
+package http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import jfr.SerializationEvent;
+import utils.LargeString;
+
+/**
+ * Serializes a structured payload into request body bytes according to its Content-Type: form
+ * parameters for {@code application/x-www-form-urlencoded}, a pretty-printed {@code <booking>}
+ * document for XML, and JSON otherwise.
+ *
+ * <p>Payloads with {@link LargeString} values are encoded with {@link #encodeStreaming} instead.
+ * Other bodies are rendered from {@link PayloadTemplates} when possible and fully serialized
+ * otherwise; both paths produce the same bytes. The mappers are configured once and shared, which
+ * is safe because Jackson mappers and writers are thread-safe once configured.
+ */
+public final class PayloadEncoder {
+
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+  private static final ObjectWriter XML_WRITER =
+      new XmlMapper()
+          .configure(ToXmlGenerator.Feature.WRITE_XML_DECLARATION, true)
+          .configure(SerializationFeature.WRAP_ROOT_VALUE, true)
+          .writerWithDefaultPrettyPrinter()
+          .withRootName("booking");
+  private static final PayloadTemplates TEMPLATES = new PayloadTemplates();
+
+  private PayloadEncoder() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  public static byte[] encode(Map<String, Object> payload, String fullContentType)
+      throws JsonProcessingException {
+    var format = formatOf(fullContentType);
+    var event = SerializationEvent.start("encode", format.name());
+    byte[] body =
+        TEMPLATES.encode(
+            format, fullContentType, payload, p -> serialize(format, p, fullContentType));
+    if (body == null) body = serialize(format, payload, fullContentType);
+    event.finish(body.length);
+    return body;
+  }
+
+  /**
+   * Encodes a payload like {@link #encode} but without the template cache, for payloads of one-off
+   * shapes such as fuzz cases, which would only crowd out the shapes the features reuse.
+   */
+  public static byte[] encodeUncached(Map<String, Object> payload, String fullContentType)
+      throws JsonProcessingException {
+    var format = formatOf(fullContentType);
+    var event = SerializationEvent.start("encode", format.name());
+    byte[] body = serialize(format, payload, fullContentType);
+    event.finish(body.length);
+    return body;
+  }
+
+  /**
+   * Encodes a payload with {@link LargeString} values as a {@link StreamingBody}, or returns {@code
+   * null} if it has none. The payload is serialized with a sentinel in place of every large value,
+   * and the sentinels become runs of {@link LargeString#FILL}, so the literal parts are exactly
+   * what {@link #encode} would produce. In form payloads only top-level values are considered.
+   */
+  public static StreamingBody encodeStreaming(Map<String, Object> payload, String fullContentType)
+      throws JsonProcessingException {
+    var format = formatOf(fullContentType);
+    var event = SerializationEvent.start("encode-streaming", format.name());
+    String nonce = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    List<Long> lengths = new ArrayList<>();
+    Map<String, Object> withSentinels =
+        replaceLargeStrings(payload, format == PayloadTemplates.Format.FORM, nonce, lengths);
+    if (lengths.isEmpty()) return null;
+
+    if (format != PayloadTemplates.Format.JSON
+        && !BodyEncoding.isAsciiCompatible(BodyEncoding.charsetOf(fullContentType))) {
+      throw new IllegalArgumentException(
+          "Large values can only be streamed in an ASCII-compatible charset: " + fullContentType);
+    }
+
+    byte[] encoded = serialize(format, withSentinels, fullContentType);
+    byte[][] literals = new byte[lengths.size() + 1][];
+    long[] runs = new long[lengths.size()];
+    int from = 0;
+    for (int i = 0; i < runs.length; i++) {
+      byte[] sentinel = sentinel(i, nonce).getBytes(StandardCharsets.US_ASCII);
+      int at = PayloadTemplates.indexOf(encoded, sentinel, from);
+      if (at < 0) throw new IllegalStateException("Encoder altered a large value placeholder");
+      literals[i] = Arrays.copyOfRange(encoded, from, at);
+      runs[i] = lengths.get(i);
+      from = at + sentinel.length;
+    }
+    literals[runs.length] = Arrays.copyOfRange(encoded, from, encoded.length);
+    event.finish(encoded.length);
+    return new StreamingBody(literals, runs, (byte) LargeString.FILL);
+  }
+
+  private static Map<String, Object> replaceLargeStrings(
+      Map<?, ?> map, boolean flat, String nonce, List<Long> lengths) {
+    // Same iteration order as the original, hence the same key order in the encoded body
+    Map<String, Object> copy = new LinkedHashMap<>();
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof LargeString large) {
+        value = sentinel(lengths.size(), nonce);
+        lengths.add(large.length());
+      } else if (value instanceof Map<?, ?> nested && !flat) {
+        value = replaceLargeStrings(nested, false, nonce, lengths);
+      }
+      copy.put(String.valueOf(entry.getKey()), value);
+    }
+    return copy;
+  }
+
+  private static String sentinel(int index, String nonce) {
+    return "Zlarge" + index + "Z" + nonce;
+  }
+
+  /** Full serialization, bypassing the template cache. */
+  static byte[] serialize(
+      PayloadTemplates.Format format, Map<String, Object> payload, String fullContentType)
+      throws JsonProcessingException {
+    return switch (format) {
+      case FORM -> BodyEncoding.formUrlEncode(payload, BodyEncoding.charsetOf(fullContentType));
+      case XML ->
+          XML_WRITER.writeValueAsString(payload).getBytes(BodyEncoding.charsetOf(fullContentType));
+      case JSON -> JSON_MAPPER.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8);
+    };
+  }
+
+  private static PayloadTemplates.Format formatOf(String fullContentType) {
+    var mediaType = fullContentType.split(";")[0].trim();
+    return switch (mediaType.toLowerCase()) {
+      case "application/x-www-form-urlencoded" -> PayloadTemplates.Format.FORM;
+      case "text/xml", "application/xml" -> PayloadTemplates.Format.XML;
+      default -> PayloadTemplates.Format.JSON;
+    };
+  }
+}
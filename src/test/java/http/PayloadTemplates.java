@@ -0,0 +1,230 @@
+package http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cache of pre-encoded request body templates, so repeated requests only copy bytes instead of
+ * running the full Jackson or form serialization.
+ *
+ * <p>A template belongs to a payload <em>shape</em>: the Content-Type plus the payload's keys in
+ * iteration order and the kind of every value (string, integral number, boolean, null or nested
+ * map). It is built by encoding a copy of the payload whose scalar values are replaced by unique
+ * sentinels and splitting the result around them. Rendering copies the segments and writes the
+ * actual values into the slots.
+ *
+ * <p>The bytes must be identical to the full serialization. Slots are therefore only filled with
+ * values whose encoding is trivially known: printable ASCII strings without characters JSON or XML
+ * would escape, integral numbers and booleans. Form values go through the same URL encoder as
+ * {@link BodyEncoding}. Any other value makes {@link #encode} return {@code null}, and the caller
+ * falls back to the full encoder. Each new template is checked against a full serialization of the
+ * payload that created it. A shape that fails that check is never templated again.
+ */
+final class PayloadTemplates {
+
+  // Shapes are few (one per payload variant used by the features); a runaway set is not cached
+  private static final int MAX_TEMPLATES = 256;
+
+  private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+  /** Format of a template, deciding how slot values are written. */
+  enum Format {
+    JSON,
+    XML,
+    FORM
+  }
+
+  /** Full serialization the templates must reproduce byte for byte. */
+  @FunctionalInterface
+  interface Encoder {
+    byte[] encode(Map<String, Object> payload) throws JsonProcessingException;
+  }
+
+  /**
+   * Renders {@code payload} from its cached template, building and verifying the template on first
+   * use. Returns {@code null} if the payload cannot be rendered from a template.
+   */
+  byte[] encode(Format format, String contentType, Map<String, Object> payload, Encoder fullEncoder)
+      throws JsonProcessingException {
+    Charset charset = BodyEncoding.charsetOf(contentType);
+    if (format != Format.JSON && !BodyEncoding.isAsciiCompatible(charset)) return null;
+
+    StringBuilder shape = new StringBuilder(contentType).append('\u0000');
+    List<Object> values = new ArrayList<>();
+    if (!describe(payload, format == Format.FORM, shape, values)) return null;
+
+    String key = shape.toString();
+    Template template = templates.get(key);
+    if (template == Template.UNSUPPORTED) return null;
+    if (template != null) return template.render(format, values, charset);
+
+    template = build(format, payload, fullEncoder);
+    if (template == null) {
+      templates.putIfAbsent(key, Template.UNSUPPORTED);
+      return null;
+    }
+    byte[] rendered = template.render(format, values, charset);
+    // Values that cannot be slotted prove nothing about the shape; verify with a later payload
+    if (rendered == null) return null;
+    if (!Arrays.equals(rendered, fullEncoder.encode(payload))) {
+      templates.putIfAbsent(key, Template.UNSUPPORTED);
+      return null;
+    }
+    if (templates.size() < MAX_TEMPLATES) templates.putIfAbsent(key, template);
+    return rendered;
+  }
+
+  /**
+   * Appends the shape of {@code map} and collects its scalar values in iteration order. Form
+   * payloads are flat: nested maps are single values encoded with {@code String.valueOf}, exactly
+   * as {@link BodyEncoding#formUrlEncode} does. Returns {@code false} for value types without a
+   * slot.
+   */
+  private static boolean describe(
+      Map<?, ?> map, boolean flat, StringBuilder shape, List<Object> values) {
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      shape.append(entry.getKey()).append('\u0000');
+      Object value = entry.getValue();
+      if (value == null) {
+        shape.append('n');
+      } else if (flat) {
+        shape.append('s');
+        values.add(value);
+      } else if (value instanceof Map<?, ?> nested) {
+        shape.append('{');
+        if (!describe(nested, false, shape, values)) return false;
+        shape.append('}');
+      } else if (value instanceof String) {
+        shape.append('s');
+        values.add(value);
+      } else if (value instanceof Integer || value instanceof Long) {
+        shape.append('i');
+        values.add(value);
+      } else if (value instanceof Boolean) {
+        shape.append('b');
+        values.add(value);
+      } else {
+        return false;
+      }
+      shape.append('\u0000');
+    }
+    return true;
+  }
+
+  /** Encodes a sentinel copy of {@code payload} and splits it into segments around the slots. */
+  private static Template build(Format format, Map<String, Object> payload, Encoder fullEncoder)
+      throws JsonProcessingException {
+    String nonce = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    List<String> sentinels = new ArrayList<>();
+    Map<String, Object> sentinelPayload =
+        withSentinels(payload, format == Format.FORM, nonce, sentinels);
+    byte[] encoded = fullEncoder.encode(sentinelPayload);
+
+    byte[][] segments = new byte[sentinels.size() + 1][];
+    int from = 0;
+    for (int i = 0; i < sentinels.size(); i++) {
+      String sentinel = sentinels.get(i);
+      // JSON slots include the quotes, since numbers and booleans are written without them
+      byte[] slot =
+          (format == Format.JSON ? "\"" + sentinel + "\"" : sentinel)
+              .getBytes(StandardCharsets.US_ASCII);
+      int at = indexOf(encoded, slot, from);
+      if (at < 0) return null;
+      segments[i] = Arrays.copyOfRange(encoded, from, at);
+      from = at + slot.length;
+    }
+    segments[sentinels.size()] = Arrays.copyOfRange(encoded, from, encoded.length);
+    return new Template(segments);
+  }
+
+  private static Map<String, Object> withSentinels(
+      Map<?, ?> map, boolean flat, String nonce, List<String> sentinels) {
+    // Same iteration order as the original, hence the same key order in the encoded body
+    Map<String, Object> copy = new LinkedHashMap<>();
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof Map<?, ?> nested && !flat) {
+        copy.put(String.valueOf(entry.getKey()), withSentinels(nested, false, nonce, sentinels));
+      } else if (value == null) {
+        copy.put(String.valueOf(entry.getKey()), null);
+      } else {
+        String sentinel = "Zslot" + sentinels.size() + "Z" + nonce;
+        sentinels.add(sentinel);
+        copy.put(String.valueOf(entry.getKey()), sentinel);
+      }
+    }
+    return copy;
+  }
+
+  static int indexOf(byte[] haystack, byte[] needle, int from) {
+    outer:
+    for (int i = from; i <= haystack.length - needle.length; i++) {
+      for (int j = 0; j < needle.length; j++) {
+        if (haystack[i + j] != needle[j]) continue outer;
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  /** Encoded body split around its value slots; {@code segments.length == slots + 1}. */
+  private record Template(byte[][] segments) {
+
+    static final Template UNSUPPORTED = new Template(new byte[0][]);
+
+    /** Renders the body, or returns {@code null} if a value has no byte-exact slot encoding. */
+    byte[] render(Format format, List<Object> values, Charset charset) {
+      if (values.size() != segments.length - 1) return null;
+
+      String[] texts = new String[values.size()];
+      int length = segments[segments.length - 1].length;
+      for (int i = 0; i < texts.length; i++) {
+        String text = slotText(format, values.get(i), charset);
+        if (text == null) return null;
+        texts[i] = text;
+        length += segments[i].length + text.length();
+      }
+
+      byte[] body = new byte[length];
+      int pos = 0;
+      for (int i = 0; i < texts.length; i++) {
+        System.arraycopy(segments[i], 0, body, pos, segments[i].length);
+        pos += segments[i].length;
+        // Slot texts are pure ASCII, so every char is one byte in all supported charsets
+        String text = texts[i];
+        for (int c = 0; c < text.length(); c++) body[pos++] = (byte) text.charAt(c);
+      }
+      byte[] last = segments[segments.length - 1];
+      System.arraycopy(last, 0, body, pos, last.length);
+      return body;
+    }
+
+    private static String slotText(Format format, Object value, Charset charset) {
+      if (format == Format.FORM) return BodyEncoding.urlEncode(String.valueOf(value), charset);
+      if (value instanceof String s) {
+        if (!isPlain(s, format)) return null;
+        return format == Format.JSON ? '"' + s + '"' : s;
+      }
+      return String.valueOf(value);
+    }
+
+    // Printable ASCII that neither Jackson's JSON nor its XML writer escapes
+    private static boolean isPlain(String s, Format format) {
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        if (c < 0x20 || c > 0x7e) return false;
+        if (format == Format.JSON && (c == '"' || c == '\\')) return false;
+        if (format == Format.XML && (c == '&' || c == '<' || c == '>')) return false;
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package http;
+
+import io.restassured.response.Response;
+import java.util.concurrent.CompletableFuture;
+import jfr.HttpExchangeEvent;
+import utils.RequestLoggingFilter;
+
+/**
+ * Emits an {@link HttpExchangeEvent} for every exchange of the wrapped transport, logged or not, so
+ * load runs show up in the flight recording too. Used when {@code jfr=true}.
+ */
+final class RecordingTransport implements HttpTransport {
+
+  private final HttpTransport delegate;
+
+  RecordingTransport(HttpTransport delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Response send(OutgoingRequest request, RequestLoggingFilter logger) {
+    HttpExchangeEvent event = new HttpExchangeEvent();
+    event.begin();
+    Response response = null;
+    Throwable error = null;
+    try {
+      response = delegate.send(request, logger);
+      return response;
+    } catch (RuntimeException | Error e) {
+      error = e;
+      throw e;
+    } finally {
+      commit(event, request, response, error);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Response> sendAsync(
+      OutgoingRequest request, RequestLoggingFilter logger) {
+    HttpExchangeEvent event = new HttpExchangeEvent();
+    event.begin();
+    return delegate
+        .sendAsync(request, logger)
+        .whenComplete((response, error) -> commit(event, request, response, error));
+  }
+
+  @Override
+  public String connectionStats() {
+    return delegate.connectionStats();
+  }
+
+  private static void commit(
+      HttpExchangeEvent event, OutgoingRequest request, Response response, Throwable error) {
+    event.end();
+    if (!event.shouldCommit()) return;
+    event.method = request.method();
+    event.endpoint = EndpointTimings.key(request.method(), request.url());
+    if (request.body() != null) {
+      event.requestBytes = request.body().length;
+    } else if (request.streamingBody() != null) {
+      event.requestBytes = request.streamingBody().length();
+    }
+    if (response != null) {
+      event.status = response.statusCode();
+      // Buffered by the transport, so this only reads its length
+      event.responseBytes = response.asByteArray().length;
+    }
+    if (error != null) event.error = error.toString();
+    event.commit();
+  }
+}
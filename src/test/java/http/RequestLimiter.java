@@ -0,0 +1,218 @@
+package http;
+
+import io.restassured.response.Response;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import utils.ConfigReader;
+import utils.RequestLoggingFilter;
+
+/**
+ * Process-wide client-side throttle shared by every scenario and load worker, so a parallel run
+ * cannot flood a shared environment. Two independent limits apply, each off when set to {@code 0}:
+ *
+ * <ul>
+ *   <li>{@code limit.max.in.flight}: requests awaiting a response at the same time
+ *   <li>{@code limit.host.rps} and {@code limit.endpoint.rps}: requests per second per host, and
+ *       per method and path with numeric segments collapsed as in {@link EndpointTimings}, each
+ *       allowed a burst of {@code limit.burst} requests
+ * </ul>
+ *
+ * <p>Rates use the generic cell rate algorithm: every limit is a single theoretical arrival time,
+ * which a caller advances with a compare-and-set to reserve its slot and then sleeps until it. The
+ * in-flight limit is a fair {@link Semaphore}. Neither holds a monitor, so waiting virtual threads
+ * unmount instead of pinning their carrier. The time spent waiting is handed back in the {@link
+ * Sent} so it can be reported apart from the server's latency.
+ *
+ * <p>Every request of the harness is sent through {@link #send}: the steps' exchanges and the token
+ * fetches, logged into the scenario report, and the requests of load, dataset, fuzz and cleanup
+ * runs, which are not logged because thousands of them would bury the report, but are throttled all
+ * the same.
+ */
+public final class RequestLimiter {
+
+  private static final RequestLimiter INSTANCE = new RequestLimiter();
+
+  private final Semaphore inFlight;
+  private final long hostIntervalNanos;
+  private final long endpointIntervalNanos;
+  private final int burst;
+  private final Map<String, Rate> rates = new ConcurrentHashMap<>();
+
+  private RequestLimiter() {
+    int maxInFlight = ConfigReader.getInt("limit.max.in.flight");
+    // Fair, or a worker sending back to back would take its slot again ahead of the queued ones
+    inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+    hostIntervalNanos = intervalNanos(ConfigReader.get("limit.host.rps"));
+    endpointIntervalNanos = intervalNanos(ConfigReader.get("limit.endpoint.rps"));
+    burst = Math.max(1, ConfigReader.getInt("limit.burst"));
+  }
+
+  public static RequestLimiter get() {
+    return INSTANCE;
+  }
+
+  private static long intervalNanos(String requestsPerSecond) {
+    double rate = Double.parseDouble(requestsPerSecond);
+    return rate > 0 ? Math.max(1, Math.round(1_000_000_000 / rate)) : 0;
+  }
+
+  /** Whether any limit is configured; without one, {@link #send} never waits. */
+  public boolean enabled() {
+    return inFlight != null || hostIntervalNanos > 0 || endpointIntervalNanos > 0;
+  }
+
+  /**
+   * Waits until a request to {@code url} may be sent. The returned permit must be closed once the
+   * response has been received, to free its in-flight slot.
+   *
+   * @throws IllegalStateException if the thread is interrupted while waiting
+   */
+  private Permit acquire(String method, String url) {
+    if (!enabled()) return Permit.NONE;
+    long start = System.nanoTime();
+
+    // Rates first, so a request sleeping for its slot does not hold an in-flight slot meanwhile
+    long sendAt = start;
+    if (hostIntervalNanos > 0) {
+      sendAt = Math.max(sendAt, rate("host " + host(url), hostIntervalNanos).reserve());
+    }
+    if (endpointIntervalNanos > 0) {
+      sendAt =
+          Math.max(
+              sendAt,
+              rate("endpoint " + EndpointTimings.key(method, url), endpointIntervalNanos)
+                  .reserve());
+    }
+    long remaining;
+    while ((remaining = sendAt - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.currentThread().isInterrupted()) {
+        throw new IllegalStateException("Interrupted while waiting for the request limiter");
+      }
+    }
+
+    if (inFlight != null) {
+      try {
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for the request limiter", e);
+      }
+    }
+    return new Permit(inFlight, Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  /**
+   * Sends {@code request} once the limiter admits it, and frees its in-flight slot when the
+   * response has arrived. For a logged exchange the wait is noted on {@code logger} and in the
+   * {@link EndpointTimings}.
+   *
+   * @param logger logs the exchange into the scenario report, or {@code null} to skip logging
+   * @return the response, or the failure of the exchange, and the time spent in the limiter, which
+   *     is throttling the run asked for and is kept out of latencies
+   * @throws IllegalStateException if the thread is interrupted while waiting
+   */
+  public Sent send(HttpTransport transport, OutgoingRequest request, RequestLoggingFilter logger) {
+    Permit permit = acquire(request.method(), request.url());
+    try {
+      if (logger != null && enabled()) {
+        logger.setLimiterWait(permit.waited());
+        EndpointTimings.get().recordLimiterWait(request.method(), request.url(), permit.waited());
+      }
+      return new Sent(transport.send(request, logger), null, permit.waited());
+    } catch (RuntimeException e) {
+      return new Sent(null, e, permit.waited());
+    } catch (Exception e) {
+      // RestAssured rethrows checked I/O exceptions without declaring them
+      RuntimeException failure =
+          e instanceof IOException io ? new UncheckedIOException(io) : new IllegalStateException(e);
+      return new Sent(null, failure, permit.waited());
+    } finally {
+      permit.close();
+    }
+  }
+
+  private Rate rate(String key, long intervalNanos) {
+    Rate rate = rates.get(key);
+    return rate != null
+        ? rate
+        : rates.computeIfAbsent(key, k -> new Rate(intervalNanos, (burst - 1) * intervalNanos));
+  }
+
+  private static String host(String url) {
+    try {
+      URI uri = URI.create(url);
+      return uri.getScheme() + "://" + uri.getAuthority();
+    } catch (IllegalArgumentException e) {
+      return url;
+    }
+  }
+
+  /**
+   * Outcome of one {@link #send}: the response, or the failure if the exchange failed, and how long
+   * the request waited in the limiter before it was sent.
+   */
+  public record Sent(Response response, RuntimeException failure, Duration waited) {
+
+    /** Returns the response, or throws the failure of the exchange. */
+    public Response orThrow() {
+      if (failure != null) throw failure;
+      return response;
+    }
+  }
+
+  /** Admission of one request: its in-flight slot, if limited, and how long it waited for it. */
+  private static final class Permit implements AutoCloseable {
+
+    static final Permit NONE = new Permit(null, Duration.ZERO);
+
+    private final Semaphore inFlight;
+    private final Duration waited;
+
+    private Permit(Semaphore inFlight, Duration waited) {
+      this.inFlight = inFlight;
+      this.waited = waited;
+    }
+
+    /** Time spent in the limiter before the request could be sent. */
+    Duration waited() {
+      return waited;
+    }
+
+    @Override
+    public void close() {
+      if (inFlight != null) inFlight.release();
+    }
+  }
+
+  /** One rate limit, as the theoretical arrival time of the next request at the nominal rate. */
+  private static final class Rate {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    Rate(long intervalNanos, long toleranceNanos) {
+      this.intervalNanos = intervalNanos;
+      this.toleranceNanos = toleranceNanos;
+      this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /** Reserves the next slot and returns the {@link System#nanoTime} at which it starts. */
+    long reserve() {
+      while (true) {
+        long now = System.nanoTime();
+        long arrival = theoreticalArrival.get();
+        if (theoreticalArrival.compareAndSet(arrival, Math.max(arrival, now) + intervalNanos)) {
+          return Math.max(now, arrival - toleranceNanos);
+        }
+      }
+    }
+  }
+}
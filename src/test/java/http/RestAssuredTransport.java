@@ -0,0 +1,150 @@
+package http;
+
+import static io.restassured.RestAssured.given;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.config.EncoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.params.CoreProtocolPNames;
+import org.apache.http.util.EntityUtils;
+import utils.RequestLoggingFilter;
+
+/**
+ * HTTP/1.1 transport backed by RestAssured and the shared {@link ConnectionPool}. RestAssured
+ * buffers every request body in memory, so {@link StreamingBody} requests bypass it and go straight
+ * to the pooled Apache client.
+ */
+@SuppressWarnings("deprecation")
+public class RestAssuredTransport implements HttpTransport {
+
+  // Set by the entity or managed by the client itself
+  private static final Set<String> STREAMING_SKIPPED_HEADERS =
+      Set.of("content-length", "transfer-encoding", "host", "expect");
+
+  // RestAssured is blocking, so async sends run on virtual threads
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  private final RestAssuredConfig config =
+      ConnectionPool.get()
+          .config()
+          .encoderConfig(
+              EncoderConfig.encoderConfig()
+                  .appendDefaultContentCharsetToContentTypeIfUndefined(false));
+
+  @Override
+  public Response send(OutgoingRequest request, RequestLoggingFilter logger) {
+    if (request.streamingBody() != null) return sendStreaming(request, logger);
+
+    RequestSpecification requestSpec = given().config(config);
+    request.headers().forEach(requestSpec::header);
+    if (request.body() != null) {
+      if (isForm(request.contentType())) {
+        // RestAssured only accepts form bodies as text; the encoded form is plain ASCII
+        requestSpec.body(new String(request.body(), StandardCharsets.US_ASCII));
+      } else {
+        requestSpec.body(request.body());
+      }
+    }
+    if (logger != null) requestSpec.filter(logger);
+
+    Response response =
+        requestSpec.when().request(request.method(), request.url()).then().extract().response();
+    // Buffer the body so the pooled connection is released even when nobody reads the response
+    response.asByteArray();
+    return response;
+  }
+
+  private Response sendStreaming(OutgoingRequest request, RequestLoggingFilter logger) {
+    StreamingBody body = request.streamingBody();
+    if (logger != null) {
+      logger.logRequest(request.method(), request.url(), request.restAssuredHeaders(), body);
+    }
+
+    HttpUriRequest httpRequest =
+        RequestBuilder.create(request.method())
+            .setUri(request.url())
+            .setEntity(new InputStreamEntity(body.newInputStream(), body.length()))
+            .build();
+    request
+        .headers()
+        .forEach(
+            (name, value) -> {
+              if (!STREAMING_SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                httpRequest.addHeader(name, value);
+              }
+            });
+    // Lets a server reject an oversized body before it is sent
+    httpRequest.getParams().setBooleanParameter(CoreProtocolPNames.USE_EXPECT_CONTINUE, true);
+
+    ConnectionPool pool = ConnectionPool.get();
+    pool.takeConnectNanos();
+    long start = System.nanoTime();
+    try {
+      HttpResponse httpResponse = pool.client().execute(httpRequest);
+      long headersReceived = System.nanoTime();
+      byte[] responseBody =
+          httpResponse.getEntity() == null
+              ? new byte[0]
+              : EntityUtils.toByteArray(httpResponse.getEntity());
+      long end = System.nanoTime();
+
+      Response response = toResponse(httpResponse, responseBody);
+      if (logger != null) {
+        logger.logResponse(
+            response, ExchangeTiming.of(start, pool.takeConnectNanos(), headersReceived, end));
+      }
+      return response;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Response toResponse(HttpResponse httpResponse, byte[] body) {
+    List<Header> headers = new ArrayList<>();
+    for (org.apache.http.Header header : httpResponse.getAllHeaders()) {
+      headers.add(new Header(header.getName(), header.getValue()));
+    }
+    ResponseBuilder builder =
+        new ResponseBuilder()
+            .setStatusCode(httpResponse.getStatusLine().getStatusCode())
+            .setStatusLine(httpResponse.getStatusLine().toString())
+            .setHeaders(new Headers(headers))
+            .setBody(body);
+    org.apache.http.Header contentType = httpResponse.getFirstHeader("Content-Type");
+    if (contentType != null) builder.setContentType(contentType.getValue());
+    return builder.build();
+  }
+
+  @Override
+  public CompletableFuture<Response> sendAsync(
+      OutgoingRequest request, RequestLoggingFilter logger) {
+    return CompletableFuture.supplyAsync(() -> send(request, logger), executor);
+  }
+
+  private static boolean isForm(String contentType) {
+    return contentType != null
+        && contentType.toLowerCase().startsWith("application/x-www-form-urlencoded");
+  }
+
+  @Override
+  public String connectionStats() {
+    return ConnectionPool.get().stats().toString();
+  }
+}
@@ -0,0 +1,108 @@
+package http;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Request body made of encoded literal segments with long runs of a single fill byte between them.
+ * Every {@link #newInputStream()} generates the body on the fly in constant memory, so its size is
+ * bounded only by {@code long}. Created by {@link PayloadEncoder#encodeStreaming} for payloads with
+ * {@link utils.LargeString} values.
+ */
+public final class StreamingBody {
+
+  // How much of every run is shown in the scenario report
+  private static final int PREVIEW_RUN = 32;
+
+  private final byte[][] literals;
+  private final long[] runs;
+  private final byte fill;
+  private final long length;
+
+  /**
+   * @param literals encoded bytes around the runs; {@code literals.length == runs.length + 1}
+   * @param runs number of fill bytes between consecutive literals
+   */
+  StreamingBody(byte[][] literals, long[] runs, byte fill) {
+    if (literals.length != runs.length + 1) {
+      throw new IllegalArgumentException("Expected one more literal than runs");
+    }
+    this.literals = literals;
+    this.runs = runs;
+    this.fill = fill;
+    long total = 0;
+    for (byte[] literal : literals) total += literal.length;
+    for (long run : runs) total = Math.addExact(total, run);
+    this.length = total;
+  }
+
+  public long length() {
+    return length;
+  }
+
+  /** A fresh stream over the whole body; each call starts from the beginning. */
+  public InputStream newInputStream() {
+    return new GeneratingInputStream();
+  }
+
+  /** Body text for the scenario report, with each run shortened to a few characters. */
+  public String preview() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < runs.length; i++) {
+      sb.append(new String(literals[i], StandardCharsets.UTF_8));
+      sb.append(String.valueOf((char) fill).repeat((int) Math.min(runs[i], PREVIEW_RUN)));
+      if (runs[i] > PREVIEW_RUN) sb.append("… [").append(runs[i]).append(" bytes]");
+    }
+    sb.append(new String(literals[runs.length], StandardCharsets.UTF_8));
+    return sb.toString();
+  }
+
+  /** Walks the literals and runs in order; reads never allocate. */
+  private final class GeneratingInputStream extends InputStream {
+    // Even parts are literals[part / 2], odd parts are runs[part / 2]
+    private int part;
+    private long offset;
+
+    @Override
+    public int read() {
+      while (part < 2 * runs.length + 1) {
+        if (offset >= partLength()) {
+          part++;
+          offset = 0;
+          continue;
+        }
+        int b = part % 2 == 0 ? literals[part / 2][(int) offset] : fill;
+        offset++;
+        return b & 0xff;
+      }
+      return -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) {
+      if (len == 0) return 0;
+      while (part < 2 * runs.length + 1) {
+        long remaining = partLength() - offset;
+        if (remaining <= 0) {
+          part++;
+          offset = 0;
+          continue;
+        }
+        int n = (int) Math.min(len, remaining);
+        if (part % 2 == 0) {
+          System.arraycopy(literals[part / 2], (int) offset, buffer, off, n);
+        } else {
+          Arrays.fill(buffer, off, off + n, fill);
+        }
+        offset += n;
+        return n;
+      }
+      return -1;
+    }
+
+    private long partLength() {
+      return part % 2 == 0 ? literals[part / 2].length : runs[part / 2];
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package http;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import jfr.SerializationEvent;
+
+/**
+ * Reads element values out of an XML response body in one forward pass with a StAX reader, the XML
+ * counterpart of {@link JsonExtractor}. Paths are element names joined with dots, starting at the
+ * root element: {@code created-booking.bookingid} selects one element, {@code
+ * created-booking.booking.*} every leaf element below {@code booking}, keyed by its full path.
+ * Values are the element text. Elements no requested path reaches are passed over without
+ * collecting their text, and reading stops as soon as every path has been resolved.
+ */
+public final class XmlExtractor {
+
+  private static final XMLInputFactory FACTORY = newFactory();
+
+  private XmlExtractor() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  private static XMLInputFactory newFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    // Response bodies are untrusted: no DTDs, no external entities
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * Returns the text of the leaf elements at {@code paths}, in document order. Paths missing from
+   * the document, and exact paths naming an element with children, have no entry.
+   */
+  public static Map<String, Object> extract(byte[] xml, Collection<String> paths) {
+    var event = SerializationEvent.start("extract", "XML");
+    Map<String, Object> values = new LinkedHashMap<>();
+    PathSelection selection = new PathSelection(paths);
+    XMLStreamReader reader = null;
+    try {
+      reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml));
+      read(reader, selection, values);
+    } catch (XMLStreamException e) {
+      throw new IllegalStateException("Response body is not valid XML", e);
+    } finally {
+      close(reader);
+    }
+    event.finish(xml.length);
+    return values;
+  }
+
+  private static void read(
+      XMLStreamReader reader, PathSelection selection, Map<String, Object> values)
+      throws XMLStreamException {
+    Deque<Element> open = new ArrayDeque<>();
+    StringBuilder text = new StringBuilder();
+    int skipped = 0;
+
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT -> {
+          if (skipped > 0) {
+            skipped++;
+            continue;
+          }
+          Element parent = open.peek();
+          String name = reader.getLocalName();
+          String path = parent == null ? name : parent.path + "." + name;
+          if (parent != null) parent.hasChildren = true;
+          if (selection.isExact(path) || selection.reaches(path)) {
+            open.push(new Element(path));
+            text.setLength(0);
+          } else {
+            skipped = 1;
+          }
+        }
+        case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+          if (skipped == 0 && !open.isEmpty()) {
+            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          }
+        }
+        case XMLStreamConstants.END_ELEMENT -> {
+          if (skipped > 0) {
+            skipped--;
+            continue;
+          }
+          Element element = open.pop();
+          boolean exact = selection.isExact(element.path);
+          if (!element.hasChildren && (exact || selection.covers(element.path))) {
+            values.put(element.path, text.toString());
+            if (exact && selection.resolve()) return;
+          } else if (element.hasChildren && selection.isWildcard(element.path)) {
+            if (selection.resolve()) return;
+          }
+          text.setLength(0);
+        }
+        default -> {}
+      }
+    }
+  }
+
+  private static void close(XMLStreamReader reader) {
+    if (reader == null) return;
+    try {
+      reader.close();
+    } catch (XMLStreamException ignored) {
+      // Nothing was written; the body is in memory
+    }
+  }
+
+  /** An element being read, identified by its path from the root. */
+  private static final class Element {
+    final String path;
+    boolean hasChildren;
+
+    Element(String path) {
+      this.path = path;
+    }
+  }
+}
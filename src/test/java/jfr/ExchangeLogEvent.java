@@ -0,0 +1,34 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Work of the exchange log: formatting an entry on the writer thread, or a scenario thread waiting
+ * for its pending entries and logging them into the report.
+ */
+@Name("booker.ExchangeLog")
+@Label("Exchange Log")
+@Category({"Restful Booker", "Logging"})
+@StackTrace(false)
+public class ExchangeLogEvent extends Event {
+
+  @Label("Operation")
+  @Description("format (writer thread) or flush (scenario thread)")
+  public String operation;
+
+  @Label("Entries")
+  public int entries;
+
+  @Label("Text Size")
+  @Description("Characters of formatted report text")
+  public long characters;
+
+  @Label("Body Stored")
+  @Description("Whether the entry links to a full body in the bodies directory")
+  public boolean bodyStored;
+}
@@ -0,0 +1,121 @@
+package jfr;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import shard.Shard;
+import utils.ConfigReader;
+
+/**
+ * Cucumber plugin that records the run with Java Flight Recorder into {@code
+ * <report.path>/cucumber/flight-recording.jfr}, using the JDK's low-overhead {@code default}
+ * settings plus the events of this package. It emits a {@link ScenarioEvent} per scenario and a
+ * {@link StepEvent} per step and hook; the HTTP, serialization and exchange log events are emitted
+ * where that work happens. Added to {@code cucumber.plugin} when {@code jfr=true}.
+ *
+ * <p>Cucumber delivers the events on the thread running the scenario, so the JFR events carry that
+ * thread. Summarized by {@code ./gradlew jfrSummary}.
+ */
+public class FlightRecorderPlugin implements ConcurrentEventListener {
+
+  private final Map<UUID, ScenarioEvent> scenarios = new ConcurrentHashMap<>();
+  // A scenario runs one step at a time, so its running step is keyed by the scenario
+  private final Map<UUID, StepEvent> steps = new ConcurrentHashMap<>();
+  private Recording recording;
+  private Path file;
+
+  @Override
+  public void setEventPublisher(EventPublisher publisher) {
+    publisher.registerHandlerFor(TestRunStarted.class, event -> startRecording());
+    publisher.registerHandlerFor(TestCaseStarted.class, this::scenarioStarted);
+    publisher.registerHandlerFor(TestStepStarted.class, this::stepStarted);
+    publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+    publisher.registerHandlerFor(TestCaseFinished.class, this::scenarioFinished);
+    publisher.registerHandlerFor(TestRunFinished.class, event -> stopRecording());
+  }
+
+  private void startRecording() {
+    file = Path.of(ConfigReader.get("report.path"), "cucumber", "flight-recording.jfr");
+    try {
+      Files.createDirectories(file.getParent());
+      recording = new Recording(Configuration.getConfiguration("default"));
+      recording.setName("restful-booker");
+      recording.setToDisk(true);
+      recording.setDestination(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not prepare flight recording " + file, e);
+    } catch (ParseException e) {
+      throw new IllegalStateException("Could not read the JFR default settings", e);
+    }
+    recording.start();
+  }
+
+  private void stopRecording() {
+    if (recording == null) return;
+    // Writes the recording to its destination
+    recording.stop();
+    recording.close();
+    recording = null;
+    System.err.println("Flight recording written to " + file);
+  }
+
+  private void scenarioStarted(TestCaseStarted event) {
+    ScenarioEvent scenario = new ScenarioEvent();
+    scenario.begin();
+    scenarios.put(event.getTestCase().getId(), scenario);
+  }
+
+  private void scenarioFinished(TestCaseFinished event) {
+    ScenarioEvent scenario = scenarios.remove(event.getTestCase().getId());
+    if (scenario == null) return;
+    scenario.end();
+    if (scenario.shouldCommit()) {
+      TestCase testCase = event.getTestCase();
+      scenario.name = testCase.getName();
+      scenario.location = Shard.key(testCase.getUri(), testCase.getLocation().getLine());
+      scenario.status = event.getResult().getStatus().name();
+      scenario.commit();
+    }
+  }
+
+  private void stepStarted(TestStepStarted event) {
+    StepEvent step = new StepEvent();
+    step.begin();
+    steps.put(event.getTestCase().getId(), step);
+  }
+
+  private void stepFinished(TestStepFinished event) {
+    StepEvent step = steps.remove(event.getTestCase().getId());
+    if (step == null) return;
+    step.end();
+    if (step.shouldCommit()) {
+      step.scenario = event.getTestCase().getName();
+      if (event.getTestStep() instanceof PickleStepTestStep pickleStep) {
+        step.text = pickleStep.getStep().getKeyword() + pickleStep.getStep().getText();
+        step.location = Shard.key(pickleStep.getUri(), pickleStep.getStep().getLine());
+      } else if (event.getTestStep() instanceof HookTestStep hook) {
+        step.text = hook.getHookType() + " " + hook.getCodeLocation();
+      }
+      step.status = event.getResult().getStatus().name();
+      step.commit();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One request/response exchange, from sending the request until the body was received. */
+@Name("booker.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"Restful Booker", "HTTP"})
+@Description("Request sent by a step or a load run and its response")
+@StackTrace(false)
+public class HttpExchangeEvent extends Event {
+
+  @Label("Method")
+  public String method;
+
+  @Label("Endpoint")
+  @Description("Method and path, numeric path segments collapsed to {id}")
+  public String endpoint;
+
+  @Label("Status")
+  @Description("Response status, 0 if no response was received")
+  public int status;
+
+  @Label("Request Bytes")
+  @DataAmount
+  public long requestBytes;
+
+  @Label("Response Bytes")
+  @DataAmount
+  public long responseBytes;
+
+  @Label("Error")
+  public String error;
+}
@@ -0,0 +1,150 @@
+package jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Prints where the time of a recorded run went: the total per kind of work, then the top consumers
+ * among endpoints, steps, scenarios and serialization operations. Times are summed over threads, so
+ * with parallel scenarios or load steps a kind of work can add up to more than the run took. Usage:
+ * {@code JfrSummary <flight-recording.jfr> [top]}.
+ */
+public final class JfrSummary {
+
+  private JfrSummary() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      throw new IllegalArgumentException("Usage: JfrSummary <flight-recording.jfr> [top]");
+    }
+    Path file = Path.of(args[0]);
+    int top = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    if (!Files.exists(file)) {
+      throw new IllegalStateException("No flight recording at " + file + ", run with -Pjfr=true");
+    }
+
+    Map<Kind, Totals> totals = new EnumMap<>(Kind.class);
+    Map<Kind, Map<String, Totals>> consumers = new EnumMap<>(Kind.class);
+    try (RecordingFile recording = new RecordingFile(file)) {
+      while (recording.hasMoreEvents()) {
+        RecordedEvent event = recording.readEvent();
+        Kind kind;
+        String key;
+        Duration duration = event.getDuration();
+        switch (event.getEventType().getName()) {
+          case "booker.Scenario" -> {
+            kind = Kind.SCENARIOS;
+            key = event.getString("location") + " " + event.getString("name");
+          }
+          case "booker.Step" -> {
+            kind = Kind.STEPS;
+            key = event.getString("text");
+          }
+          case "booker.HttpExchange" -> {
+            kind = Kind.HTTP;
+            key = event.getString("endpoint");
+          }
+          case "booker.Serialization" -> {
+            kind = Kind.SERIALIZATION;
+            key = event.getString("operation") + " " + event.getString("format");
+          }
+          case "booker.ExchangeLog" -> {
+            kind = "flush".equals(event.getString("operation")) ? Kind.LOG_FLUSH : Kind.LOG_FORMAT;
+            key = null;
+          }
+          case "jdk.GarbageCollection" -> {
+            kind = Kind.GC;
+            key = null;
+            duration = event.getDuration("sumOfPauses");
+          }
+          default -> {
+            continue;
+          }
+        }
+        totals.computeIfAbsent(kind, k -> new Totals()).add(duration);
+        if (key != null) {
+          consumers
+              .computeIfAbsent(kind, k -> new HashMap<>())
+              .computeIfAbsent(key, k -> new Totals())
+              .add(duration);
+        }
+      }
+    }
+
+    System.out.println("Flight recording " + file);
+    System.out.println();
+    System.out.printf("%-44s %8s %12s%n", "Time spent (summed over threads)", "count", "total ms");
+    for (Kind kind : Kind.values()) {
+      Totals t = totals.getOrDefault(kind, new Totals());
+      System.out.printf("  %-42s %8d %12.1f%n", kind.label, t.count, millis(t.nanos));
+    }
+    for (Kind kind : Kind.values()) {
+      Map<String, Totals> byKey = consumers.get(kind);
+      if (byKey == null) continue;
+      System.out.println();
+      System.out.printf(
+          "%s, top %d by total time%n  %8s %12s %10s %10s  %s%n",
+          kind.label, top, "count", "total ms", "mean ms", "max ms", kind.keyLabel);
+      byKey.entrySet().stream()
+          .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(t -> -t.nanos)))
+          .limit(top)
+          .forEach(
+              entry -> {
+                Totals t = entry.getValue();
+                System.out.printf(
+                    "  %8d %12.1f %10.1f %10.1f  %s%n",
+                    t.count,
+                    millis(t.nanos),
+                    millis(t.nanos / t.count),
+                    millis(t.max),
+                    entry.getKey());
+              });
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  /** Kind of work, in the order the summary lists them. */
+  private enum Kind {
+    SCENARIOS("Scenarios", "scenario"),
+    STEPS("Steps and hooks", "step"),
+    HTTP("HTTP exchanges", "endpoint"),
+    SERIALIZATION("Serialization", "operation"),
+    LOG_FORMAT("Exchange log formatting (writer thread)", null),
+    LOG_FLUSH("Exchange log flushes (scenario threads)", null),
+    GC("GC pauses", null);
+
+    private final String label;
+    private final String keyLabel;
+
+    Kind(String label, String keyLabel) {
+      this.label = label;
+      this.keyLabel = keyLabel;
+    }
+  }
+
+  private static final class Totals {
+    private long count;
+    private long nanos;
+    private long max;
+
+    void add(Duration duration) {
+      long value = duration.toNanos();
+      count++;
+      nanos += value;
+      max = Math.max(max, value);
+    }
+  }
+}
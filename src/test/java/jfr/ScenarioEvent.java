@@ -0,0 +1,26 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One scenario, its hooks included. */
+@Name("booker.Scenario")
+@Label("Scenario")
+@Category({"Restful Booker", "Cucumber"})
+@StackTrace(false)
+public class ScenarioEvent extends Event {
+
+  @Label("Name")
+  public String name;
+
+  @Label("Location")
+  @Description("Feature file and line, as in the shard and result cache keys")
+  public String location;
+
+  @Label("Status")
+  public String status;
+}
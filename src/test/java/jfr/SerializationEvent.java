@@ -0,0 +1,48 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Encoding of a request payload or reading of a response body. Started with {@link #start} and
+ * committed by {@link #finish}; an event that is never finished, because the body could not be
+ * encoded or read, is not recorded.
+ */
+@Name("booker.Serialization")
+@Label("Serialization")
+@Category({"Restful Booker", "Serialization"})
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+  @Label("Operation")
+  @Description("encode, encode-streaming, parse, extract or keys")
+  public String operation;
+
+  @Label("Format")
+  public String format;
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+
+  public static SerializationEvent start(String operation, String format) {
+    SerializationEvent event = new SerializationEvent();
+    event.operation = operation;
+    event.format = format;
+    event.begin();
+    return event;
+  }
+
+  public void finish(long bytes) {
+    end();
+    if (shouldCommit()) {
+      this.bytes = bytes;
+      commit();
+    }
+  }
+}
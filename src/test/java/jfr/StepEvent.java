@@ -0,0 +1,29 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One step or hook of a scenario. */
+@Name("booker.Step")
+@Label("Step")
+@Category({"Restful Booker", "Cucumber"})
+@StackTrace(false)
+public class StepEvent extends Event {
+
+  @Label("Scenario")
+  public String scenario;
+
+  @Label("Text")
+  @Description("Keyword and text of a step, or the hook type and method of a hook")
+  public String text;
+
+  @Label("Location")
+  public String location;
+
+  @Label("Status")
+  public String status;
+}
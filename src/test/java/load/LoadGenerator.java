@@ -0,0 +1,127 @@
+package load;
+
+import cleanup.BookingCleanup;
+import http.HttpTransport;
+import http.OutgoingRequest;
+import http.RequestLimiter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays one prepared request many times from virtual threads. Exchanges are not logged into the
+ * scenario report; only the aggregated {@link LoadResult} is kept. Requests go through {@link
+ * RequestLimiter#send}, and the time they wait there is kept out of their latency.
+ */
+public final class LoadGenerator {
+
+  private LoadGenerator() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /**
+   * Closed-loop run: {@code concurrency} virtual threads each send the request and wait for the
+   * response before sending the next one, until {@code total} requests have been sent.
+   */
+  public static LoadResult runClosedLoop(
+      HttpTransport transport, OutgoingRequest request, int total, int concurrency) {
+    if (total < 1 || concurrency < 1) {
+      throw new IllegalArgumentException("Request count and concurrency must be positive");
+    }
+
+    LoadResult result = new LoadResult();
+    AtomicInteger remaining = new AtomicInteger(total);
+    int workers = Math.min(total, concurrency);
+
+    result.start();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> futures = new ArrayList<>(workers);
+      for (int i = 0; i < workers; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  while (remaining.getAndDecrement() > 0) {
+                    send(transport, request, result, System.nanoTime());
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Load run was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Load worker failed", e.getCause());
+    } finally {
+      result.finish();
+    }
+    return result;
+  }
+
+  /**
+   * Open-loop run at a constant arrival rate: request {@code i} is due at {@code i / ratePerSecond}
+   * seconds after the start and is sent on its own virtual thread, whether or not earlier requests
+   * have been answered. Latency is measured from the scheduled start rather than the actual send
+   * time, so a stalled server or a late scheduler shows up in the percentiles instead of silently
+   * lowering the offered load (coordinated omission). Only time spent in the request limiter is
+   * taken off.
+   */
+  public static LoadResult runOpenLoop(
+      HttpTransport transport, OutgoingRequest request, int ratePerSecond, Duration duration) {
+    if (ratePerSecond < 1 || duration.isNegative() || duration.isZero()) {
+      throw new IllegalArgumentException("Request rate and duration must be positive");
+    }
+
+    LoadResult result = new LoadResult();
+    long total = Math.max(1, duration.toNanos() * ratePerSecond / 1_000_000_000L);
+
+    result.start();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      long startNanos = System.nanoTime();
+      for (long i = 0; i < total; i++) {
+        long scheduledNanos = startNanos + i * 1_000_000_000L / ratePerSecond;
+        parkUntil(scheduledNanos);
+        if (Thread.currentThread().isInterrupted()) {
+          executor.shutdownNow();
+          throw new IllegalStateException("Load run was interrupted");
+        }
+        executor.execute(() -> send(transport, request, result, scheduledNanos));
+      }
+    } finally {
+      result.finish();
+    }
+    return result;
+  }
+
+  private static void parkUntil(long deadlineNanos) {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0
+        && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+  // Time spent in the request limiter is recorded on its own and left out of the latency: it is
+  // throttling we asked for, not a slow server
+  private static void send(
+      HttpTransport transport, OutgoingRequest request, LoadResult result, long startNanos) {
+    RequestLimiter limiter = RequestLimiter.get();
+    RequestLimiter.Sent sent = limiter.send(transport, request, null);
+    long waitedNanos = sent.waited().toNanos();
+    long latencyNanos = System.nanoTime() - startNanos - waitedNanos;
+    if (limiter.enabled()) result.recordLimiterWait(waitedNanos);
+    if (sent.failure() != null) {
+      result.recordFailure(sent.failure(), latencyNanos);
+    } else {
+      result.recordResponse(sent.response().statusCode(), latencyNanos);
+      BookingCleanup.get().addCreated(request, sent.response());
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package load;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Thread-safe aggregate of a load run: request count, errors, status-code distribution and latency.
+ * Every worker records into the same instance, so counters are {@link LongAdder}s and latencies go
+ * into a {@link ConcurrentHistogram} with microsecond resolution and three significant digits.
+ *
+ * <p>An error is a request that failed at the transport level or was answered with a status code of
+ * 400 or above.
+ */
+public final class LoadResult {
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder transportFailures = new LongAdder();
+  private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  private final AtomicReference<String> firstFailure = new AtomicReference<>();
+  private final Histogram latencyMicros = new ConcurrentHistogram(3);
+  private final Histogram limiterWaitMicros = new ConcurrentHistogram(3);
+  private volatile long startNanos;
+  private volatile long endNanos;
+
+  void start() {
+    startNanos = System.nanoTime();
+  }
+
+  void finish() {
+    endNanos = System.nanoTime();
+  }
+
+  void recordResponse(int statusCode, long latencyNanos) {
+    requests.increment();
+    recordLatency(latencyNanos);
+    statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    if (statusCode >= 400) errors.increment();
+  }
+
+  // Failed requests keep their latency: a timeout is the slowest answer there is
+  void recordFailure(Throwable failure, long latencyNanos) {
+    requests.increment();
+    recordLatency(latencyNanos);
+    errors.increment();
+    transportFailures.increment();
+    firstFailure.compareAndSet(null, String.valueOf(failure));
+  }
+
+  void recordLimiterWait(long waitedNanos) {
+    limiterWaitMicros.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(waitedNanos)));
+  }
+
+  private void recordLatency(long latencyNanos) {
+    latencyMicros.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+  }
+
+  public long requests() {
+    return requests.sum();
+  }
+
+  public long errors() {
+    return errors.sum();
+  }
+
+  public long transportFailures() {
+    return transportFailures.sum();
+  }
+
+  /** Share of failed requests, between 0 and 1. */
+  public double errorRate() {
+    long total = requests();
+    return total == 0 ? 0 : (double) errors() / total;
+  }
+
+  public Duration elapsed() {
+    return Duration.ofNanos(endNanos - startNanos);
+  }
+
+  /** Completed requests per second of wall-clock time. */
+  public double throughput() {
+    long nanos = endNanos - startNanos;
+    return nanos <= 0 ? 0 : requests() * 1_000_000_000.0 / nanos;
+  }
+
+  public long countWithStatus(int statusCode) {
+    LongAdder count = statusCounts.get(statusCode);
+    return count == null ? 0 : count.sum();
+  }
+
+  /** Status code to number of responses, sorted by status code. */
+  public Map<Integer, Long> statusDistribution() {
+    Map<Integer, Long> distribution = new TreeMap<>();
+    statusCounts.forEach((status, count) -> distribution.put(status, count.sum()));
+    return distribution;
+  }
+
+  /** Latency at the given percentile (0-100), e.g. {@code 99.9}. Zero if nothing was recorded. */
+  public Duration latencyAtPercentile(double percentile) {
+    return Duration.ofNanos(
+        TimeUnit.MICROSECONDS.toNanos(latencyMicros.getValueAtPercentile(percentile)));
+  }
+
+  public Duration maxLatency() {
+    return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros.getMaxValue()));
+  }
+
+  /**
+   * Time requests spent in the {@link http.RequestLimiter} at the given percentile, not part of
+   * their latency. Zero if no limit was configured.
+   */
+  public Duration limiterWaitAtPercentile(double percentile) {
+    return Duration.ofNanos(
+        TimeUnit.MICROSECONDS.toNanos(limiterWaitMicros.getValueAtPercentile(percentile)));
+  }
+
+  @Override
+  public String toString() {
+    String summary =
+        String.format(
+            "Load test: %d requests in %.3f s (%.1f req/s), errors: %d (%.2f%%), status codes: %s",
+            requests(),
+            elapsed().toNanos() / 1e9,
+            throughput(),
+            errors(),
+            errorRate() * 100,
+            statusDistribution());
+    if (latencyMicros.getTotalCount() > 0) {
+      summary +=
+          String.format(
+              ", latency p50/p90/p99/max: %.1f/%.1f/%.1f/%.1f ms",
+              millis(latencyAtPercentile(50)),
+              millis(latencyAtPercentile(90)),
+              millis(latencyAtPercentile(99)),
+              millis(maxLatency()));
+    }
+    if (limiterWaitMicros.getTotalCount() > 0) {
+      summary +=
+          String.format(
+              ", limiter wait p50/p99/max: %.1f/%.1f/%.1f ms",
+              millis(limiterWaitAtPercentile(50)),
+              millis(limiterWaitAtPercentile(99)),
+              millis(limiterWaitAtPercentile(100)));
+    }
+    if (transportFailures() > 0) {
+      summary +=
+          String.format(
+              ", transport failures: %d (first: %s)", transportFailures(), firstFailure.get());
+    }
+    return summary;
+  }
+
+  private static double millis(Duration duration) {
+    return duration.toNanos() / 1e6;
+  }
+}
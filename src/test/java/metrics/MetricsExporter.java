@@ -0,0 +1,117 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link MetricsRegistry} while a run is going on: on {@code
+ * http://127.0.0.1:<port>/metrics} for a Prometheus scrape (OpenMetrics when the scraper asks for
+ * it), and as OpenMetrics snapshot files in a directory, one every {@code snapshotSeconds} and a
+ * last one on {@link #close}.
+ */
+public final class MetricsExporter implements AutoCloseable {
+
+  private static final String PROMETHEUS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final String OPENMETRICS_TYPE =
+      "application/openmetrics-text; version=1.0.0; charset=utf-8";
+  private static final DateTimeFormatter SNAPSHOT_NAME =
+      DateTimeFormatter.ofPattern("'metrics-'yyyyMMdd-HHmmss'.txt'");
+
+  private final MetricsRegistry registry = MetricsRegistry.get();
+  private final Path snapshotDir;
+  private final HttpServer server;
+  private final ScheduledExecutorService snapshots;
+
+  /**
+   * @param port port of the scrape endpoint, {@code 0} for any free one, or {@code null} for none
+   * @param snapshotDir directory of the snapshot files
+   * @param snapshotSeconds interval of the snapshots; {@code 0} only writes the last one
+   */
+  public MetricsExporter(Integer port, Path snapshotDir, int snapshotSeconds) {
+    this.snapshotDir = snapshotDir;
+    try {
+      Files.createDirectories(snapshotDir);
+      if (port != null) {
+        server =
+            HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(
+            Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("metrics-http").daemon().factory()));
+        server.createContext("/metrics", this::scrape);
+        server.start();
+      } else {
+        server = null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not start the metrics exporter", e);
+    }
+    snapshots =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("metrics-snapshot").daemon().factory());
+    if (snapshotSeconds > 0) {
+      snapshots.scheduleAtFixedRate(
+          this::snapshot, snapshotSeconds, snapshotSeconds, TimeUnit.SECONDS);
+    }
+  }
+
+  /** Address of the scrape endpoint, or {@code null} if there is none. */
+  public String url() {
+    if (server == null) return null;
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getHostString() + ":" + address.getPort() + "/metrics";
+  }
+
+  private void scrape(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String accept = exchange.getRequestHeaders().getFirst("Accept");
+      boolean openMetrics = accept != null && accept.contains("application/openmetrics-text");
+      StringBuilder body = new StringBuilder();
+      registry.write(body, openMetrics);
+      byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+      exchange
+          .getResponseHeaders()
+          .set("Content-Type", openMetrics ? OPENMETRICS_TYPE : PROMETHEUS_TYPE);
+      exchange.sendResponseHeaders(200, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    }
+  }
+
+  private void snapshot() {
+    StringBuilder body = new StringBuilder();
+    registry.write(body, true);
+    Path file = snapshotDir.resolve(LocalDateTime.now().format(SNAPSHOT_NAME));
+    try {
+      // Written aside and moved, so a collector picking up the files never reads a partial one
+      Path temp = Files.createTempFile(snapshotDir, "metrics", ".tmp");
+      Files.writeString(temp, body, StandardCharsets.UTF_8);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // A missed snapshot must not fail the run; the next one or the last one follows
+      System.err.println("Could not write metrics snapshot " + file + ": " + e);
+    }
+  }
+
+  /** Stops the endpoint and writes the last snapshot. */
+  @Override
+  public void close() {
+    snapshots.shutdownNow();
+    if (server != null) server.stop(0);
+    snapshot();
+  }
+}
@@ -0,0 +1,179 @@
+package metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Run-wide HTTP metrics, written in the Prometheus text format or as OpenMetrics:
+ *
+ * <ul>
+ *   <li>{@code booker_http_requests_total{method,endpoint,status}}: completed exchanges, with
+ *       {@code status="error"} for requests that got no response.
+ *   <li>{@code booker_http_request_duration_seconds{method,endpoint}}: histogram of the time from
+ *       sending the request until the whole response was received.
+ *   <li>{@code booker_http_requests_in_flight{method,endpoint}}: requests sent and not yet
+ *       answered.
+ * </ul>
+ *
+ * Endpoints are grouped like {@link http.EndpointTimings}, numeric path segments collapsed to
+ * {@code {id}}. Recording never locks: every series is a set of {@link LongAdder}s, which spread
+ * concurrent updates over striped cells, and a series is looked up without locking once it exists.
+ */
+public final class MetricsRegistry {
+
+  private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+  private static final String REQUESTS = "booker_http_requests";
+  private static final String DURATION = "booker_http_request_duration_seconds";
+  private static final String IN_FLIGHT = "booker_http_requests_in_flight";
+  // Upper bounds of the latency buckets, in seconds
+  private static final double[] BUCKETS = {
+    0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+  };
+
+  private final ConcurrentMap<List<String>, LongAdder> requests = new ConcurrentHashMap<>();
+  private final ConcurrentMap<List<String>, Histogram> durations = new ConcurrentHashMap<>();
+  private final ConcurrentMap<List<String>, LongAdder> inFlight = new ConcurrentHashMap<>();
+
+  private MetricsRegistry() {}
+
+  public static MetricsRegistry get() {
+    return INSTANCE;
+  }
+
+  /** Counts a request as in flight until it is {@link #completed}. */
+  public void started(String method, String endpoint) {
+    series(inFlight, List.of(method, endpoint), LongAdder::new).increment();
+  }
+
+  /**
+   * Records an exchange started with {@link #started}.
+   *
+   * @param status response status, or {@code null} if no response was received
+   */
+  public void completed(String method, String endpoint, Integer status, long nanos) {
+    List<String> labels = List.of(method, endpoint);
+    series(inFlight, labels, LongAdder::new).decrement();
+    series(
+            requests,
+            List.of(method, endpoint, status == null ? "error" : status.toString()),
+            LongAdder::new)
+        .increment();
+    series(durations, labels, Histogram::new).record(nanos);
+  }
+
+  private static <V> V series(
+      ConcurrentMap<List<String>, V> map, List<String> labels, Supplier<V> create) {
+    // get() first: computeIfAbsent locks the bin even when the series exists
+    V value = map.get(labels);
+    return value != null ? value : map.computeIfAbsent(labels, l -> create.get());
+  }
+
+  /**
+   * Appends all series in the Prometheus text exposition format (version 0.0.4) or, with {@code
+   * openMetrics}, in the OpenMetrics text format including its {@code # EOF} terminator.
+   */
+  public void write(StringBuilder out, boolean openMetrics) {
+    family(out, openMetrics, REQUESTS, "counter", "HTTP exchanges by method, endpoint and status.");
+    for (Map.Entry<List<String>, LongAdder> e : sorted(requests).entrySet()) {
+      sample(out, REQUESTS + "_total", e.getKey(), null, e.getValue().sum());
+    }
+
+    family(out, openMetrics, DURATION, "histogram", "Time until the whole response was received.");
+    for (Map.Entry<List<String>, Histogram> e : sorted(durations).entrySet()) {
+      e.getValue().write(out, e.getKey());
+    }
+
+    family(out, openMetrics, IN_FLIGHT, "gauge", "Requests sent and not yet answered.");
+    for (Map.Entry<List<String>, LongAdder> e : sorted(inFlight).entrySet()) {
+      sample(out, IN_FLIGHT, e.getKey(), null, e.getValue().sum());
+    }
+
+    if (openMetrics) out.append("# EOF\n");
+  }
+
+  private static void family(
+      StringBuilder out, boolean openMetrics, String name, String type, String help) {
+    // OpenMetrics names a counter family without the _total suffix of its samples
+    String family = !openMetrics && type.equals("counter") ? name + "_total" : name;
+    out.append("# HELP ").append(family).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(
+      StringBuilder out, String name, List<String> labels, String le, Object value) {
+    out.append(name).append("{method=\"");
+    escape(out, labels.get(0));
+    out.append("\",endpoint=\"");
+    escape(out, labels.get(1));
+    out.append('"');
+    if (labels.size() > 2) {
+      out.append(",status=\"");
+      escape(out, labels.get(2));
+      out.append('"');
+    }
+    if (le != null) out.append(",le=\"").append(le).append('"');
+    out.append("} ").append(value).append('\n');
+  }
+
+  private static void escape(StringBuilder out, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\' -> out.append("\\\\");
+        case '"' -> out.append("\\\"");
+        case '\n' -> out.append("\\n");
+        default -> out.append(c);
+      }
+    }
+  }
+
+  private static <V> Map<List<String>, V> sorted(Map<List<String>, V> series) {
+    Map<List<String>, V> sorted = new TreeMap<>(MetricsRegistry::compareLabels);
+    sorted.putAll(series);
+    return sorted;
+  }
+
+  private static int compareLabels(List<String> a, List<String> b) {
+    for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+      int c = a.get(i).compareTo(b.get(i));
+      if (c != 0) return c;
+    }
+    return Integer.compare(a.size(), b.size());
+  }
+
+  /** Latency histogram of one series; buckets are counted apart and summed up when written. */
+  private static final class Histogram {
+    private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    void record(long nanos) {
+      double seconds = nanos / 1e9;
+      int bucket = 0;
+      while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) bucket++;
+      buckets[bucket].increment();
+      sumNanos.add(nanos);
+    }
+
+    void write(StringBuilder out, List<String> labels) {
+      // Read once, so the cumulative buckets and the count agree with each other
+      long cumulative = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        cumulative += buckets[i].sum();
+        String le = i < BUCKETS.length ? Double.toString(BUCKETS[i]) : "+Inf";
+        sample(out, DURATION + "_bucket", labels, le, cumulative);
+      }
+      sample(out, DURATION + "_count", labels, null, cumulative);
+      sample(out, DURATION + "_sum", labels, null, sumNanos.sum() / 1e9);
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package runner;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import soak.SoakStats;
+
+/**
+ * Runs the suite without Gradle: {@code java -jar launcher.jar -Ptags=@smoke -Pstub=true}. Takes
+ * the same {@code -P} properties as {@code ./gradlew test} and turns them into the same system
+ * properties the {@code test} task in {@code build.gradle} sets, then runs {@link TestRunner}
+ * through the JUnit Platform Launcher. Exits with 1 if a scenario failed, 2 on invalid arguments.
+ *
+ * <p>With {@code -Psoak.duration=12h} (or {@code 90m}, {@code 30s}, {@code PT12H}) it runs the
+ * selected scenarios over and over until the duration is up: a soak run. It then keeps no reports
+ * and logs no exchanges, only the constant-size {@link SoakStats}, and prints their summary.
+ *
+ * <p>Built by {@code ./gradlew installLauncher} into {@code build/install/launcher}; the Docker
+ * image runs it with a class-data sharing archive recorded at build time.
+ */
+public final class Launcher {
+
+  // Passed through unchanged; the Gradle test task reads the same list
+  private static final Set<String> PASSED_THROUGH = passedThrough();
+
+  // Interpreted here, like the Gradle test task does
+  private static final Set<String> DERIVED =
+      Set.of(
+          "tags",
+          "report.path",
+          "parallelism",
+          "shard.durations",
+          "result.cache.path",
+          "baseline.path",
+          "soak.duration");
+
+  private static final Pattern SHORT_DURATION = Pattern.compile("(\\d+)([smh])");
+
+  private Launcher() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  public static void main(String[] args) {
+    Map<String, String> properties;
+    Duration soak;
+    try {
+      properties = parse(args);
+      soak = properties.containsKey("soak.duration") ? soakDuration(properties) : null;
+    } catch (IllegalArgumentException e) {
+      exitWithUsage(e.getMessage());
+      return;
+    }
+    systemProperties(properties).forEach(System::setProperty);
+    if (soak != null) {
+      // Started before the run, so invalid soak settings fail like invalid arguments
+      try {
+        SoakStats.get().start();
+      } catch (IllegalArgumentException e) {
+        exitWithUsage(e.getMessage());
+        return;
+      }
+    }
+
+    boolean passed = soak == null ? run() : soak(soak);
+    System.exit(passed ? 0 : 1);
+  }
+
+  private static void exitWithUsage(String message) {
+    System.err.println(message);
+    System.err.println("Usage: java -jar launcher.jar [-P<property>[=<value>] ...]");
+    System.exit(2);
+  }
+
+  private static Set<String> passedThrough() {
+    try (InputStream in = Launcher.class.getResourceAsStream("/passed-through-keys.txt")) {
+      if (in == null)
+        throw new IllegalStateException("passed-through-keys.txt is not on the class path");
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8)
+          .lines()
+          .map(String::trim)
+          .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+          .collect(Collectors.toUnmodifiableSet());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read passed-through-keys.txt", e);
+    }
+  }
+
+  /** Reads {@code -Pkey=value} and {@code -Pkey} (empty value) arguments. */
+  static Map<String, String> parse(String[] args) {
+    Map<String, String> properties = new LinkedHashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("-P") || arg.length() == 2) {
+        throw new IllegalArgumentException("Unexpected argument '" + arg + "'");
+      }
+      int eq = arg.indexOf('=');
+      String key = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+      if (!PASSED_THROUGH.contains(key) && !DERIVED.contains(key)) {
+        throw new IllegalArgumentException("Unknown property '" + key + "'");
+      }
+      properties.put(key, eq < 0 ? "" : arg.substring(eq + 1));
+    }
+    return properties;
+  }
+
+  /**
+   * Reads {@code soak.duration}: a number of seconds, minutes or hours, or an ISO-8601 duration.
+   */
+  static Duration soakDuration(Map<String, String> properties) {
+    String value = properties.get("soak.duration").trim();
+    Matcher matcher = SHORT_DURATION.matcher(value);
+    if (matcher.matches()) {
+      long amount = Long.parseLong(matcher.group(1));
+      return switch (matcher.group(2)) {
+        case "s" -> Duration.ofSeconds(amount);
+        case "m" -> Duration.ofMinutes(amount);
+        default -> Duration.ofHours(amount);
+      };
+    }
+    try {
+      return Duration.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid soak.duration '" + value + "'", e);
+    }
+  }
+
+  /** The system properties the Gradle test task would set for {@code properties}. */
+  static Map<String, String> systemProperties(Map<String, String> properties) {
+    Map<String, String> system = new LinkedHashMap<>();
+    properties.forEach(
+        (key, value) -> {
+          if (PASSED_THROUGH.contains(key)) system.put(key, value);
+        });
+    if (properties.containsKey("tags")) system.put("cucumber.filter.tags", properties.get("tags"));
+
+    String reportPath = properties.getOrDefault("report.path", "cucumber-reports");
+    String shard = properties.getOrDefault("shard", "").trim();
+    String runReportPath =
+        shard.isEmpty() ? reportPath : reportPath + "/shards/" + shard.replace("/", "-of-");
+    system.put("report.path", runReportPath);
+    system.put(
+        "shard.durations",
+        properties.getOrDefault("shard.durations", reportPath + "/scenario-durations.json"));
+    system.put(
+        "result.cache.path",
+        properties.getOrDefault("result.cache.path", reportPath + "/result-cache.json"));
+    system.put(
+        "baseline.path",
+        properties.getOrDefault("baseline.path", reportPath + "/latency-baseline.jsonl"));
+
+    List<String> plugins =
+        new ArrayList<>(
+            List.of(
+                "pretty",
+                "summary",
+                "html:" + runReportPath + "/cucumber/cucumber-report.html",
+                "json:" + runReportPath + "/cucumber/cucumber-report.json"));
+    String parallelism = properties.get("parallelism");
+    if (parallelism != null) {
+      system.put("cucumber.execution.parallel.enabled", "true");
+      if (parallelism.isBlank() || parallelism.trim().equals("auto")) {
+        system.put("cucumber.execution.parallel.config.strategy", "dynamic");
+        system.put("cucumber.execution.parallel.config.dynamic.factor", "1");
+      } else {
+        String threads = String.valueOf(Integer.parseInt(parallelism.trim()));
+        system.put("cucumber.execution.parallel.config.strategy", "fixed");
+        system.put("cucumber.execution.parallel.config.fixed.parallelism", threads);
+        system.put("cucumber.execution.parallel.config.fixed.max-pool-size", threads);
+      }
+      // The pretty formatter interleaves the lines of concurrently running scenarios
+      plugins.remove("pretty");
+    }
+    if (properties.containsKey("soak.duration")) {
+      // Report plugins keep every scenario of the run in memory
+      plugins.clear();
+      plugins.add("soak.SoakPlugin");
+      system.putIfAbsent("log.exchanges", "false");
+    }
+    if ("true".equals(properties.get("jfr"))) plugins.add("jfr.FlightRecorderPlugin");
+    system.put("cucumber.plugin", String.join(", ", plugins));
+
+    system.put("cucumber.publish.quiet", "true");
+    system.put("cucumber.execution.strict", "true");
+    system.put("cucumber.snippet-type", "camelcase");
+    return system;
+  }
+
+  /** Runs the suite once; returns whether every scenario passed. */
+  private static boolean run() {
+    SummaryGeneratingListener listener = new SummaryGeneratingListener();
+    try (LauncherSession session = LauncherFactory.openSession()) {
+      session.getLauncher().execute(request(), listener);
+    }
+    return listener.getSummary().getTotalFailureCount() == 0;
+  }
+
+  /**
+   * Runs the suite until {@code duration} is up, with the {@link SoakStats} already started;
+   * returns whether every scenario passed.
+   */
+  private static boolean soak(Duration duration) {
+    LauncherDiscoveryRequest request = request();
+    SoakStats stats = SoakStats.get();
+    long deadline = System.nanoTime() + duration.toNanos();
+    boolean passed = true;
+    try (LauncherSession session = LauncherFactory.openSession()) {
+      do {
+        // A new listener per iteration: it keeps the failures of its run
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        session.getLauncher().execute(request, listener);
+        stats.iterationFinished();
+        TestExecutionSummary summary = listener.getSummary();
+        passed &= summary.getTotalFailureCount() == 0;
+        if (summary.getTestsFoundCount() == 0) break;
+      } while (System.nanoTime() < deadline);
+    }
+    stats.finish(Path.of(System.getProperty("report.path"), "cucumber", "soak-summary.json"));
+    return passed;
+  }
+
+  private static LauncherDiscoveryRequest request() {
+    try {
+      Files.createDirectories(Path.of(System.getProperty("report.path"), "cucumber"));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not create the report directory", e);
+    }
+    return LauncherDiscoveryRequestBuilder.request()
+        .selectors(selectClass(TestRunner.class))
+        .build();
+  }
+}
@@ -0,0 +1,56 @@
+package runner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestTag;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import utils.ConfigReader;
+
+/**
+ * Keeps scenarios that put heavy traffic on the target out of runs that did not ask for them.
+ * Registered with the JUnit Platform launcher through {@code META-INF/services}, so it applies to
+ * Gradle and launcher runs alike, on top of whatever {@code -Ptags} selects:
+ *
+ * <ul>
+ *   <li>{@code @load} and {@code @fuzz} scenarios only run when the tag expression names their tag,
+ *       so {@code -Ptags=@booking} neither loads nor fuzzes the target, and a run without {@code
+ *       -Ptags} runs neither.
+ *   <li>{@code @stub} scenarios only run against the in-process stub ({@code -Pstub=true}).
+ * </ul>
+ */
+public class OptInFilter implements PostDiscoveryFilter {
+
+  private static final List<String> OPT_IN_TAGS = List.of("load", "fuzz");
+  private static final String STUB_TAG = "stub";
+
+  private final Set<String> named = namedTags(System.getProperty("cucumber.filter.tags", ""));
+  private final boolean stub = Boolean.parseBoolean(ConfigReader.get("stub"));
+
+  @Override
+  public FilterResult apply(TestDescriptor descriptor) {
+    if (!descriptor.isTest()) return FilterResult.included("not a scenario");
+    Set<String> tags =
+        descriptor.getTags().stream().map(TestTag::getName).collect(Collectors.toSet());
+    for (String tag : OPT_IN_TAGS) {
+      if (tags.contains(tag) && !named.contains(tag)) {
+        return FilterResult.excluded("@" + tag + " runs only when -Ptags names it");
+      }
+    }
+    if (tags.contains(STUB_TAG) && !stub) {
+      return FilterResult.excluded("@" + STUB_TAG + " runs only with -Pstub=true");
+    }
+    return FilterResult.included("opted in");
+  }
+
+  /** The tags a Cucumber tag expression mentions, negated or not, without the {@code @}. */
+  static Set<String> namedTags(String expression) {
+    return Arrays.stream(expression.split("[\\s()]+"))
+        .filter(token -> token.startsWith("@"))
+        .map(token -> token.substring(1))
+        .collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,52 @@
+package shard;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Scenario durations in milliseconds keyed by {@link Shard#key}, stored as a JSON object. The
+ * planner reads them from {@code shard.durations}; every run writes its own measurements to its
+ * report directory, and they are folded into the planner's file with the latest value winning.
+ */
+public final class ScenarioDurations {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private ScenarioDurations() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /** Reads {@code file}; empty if it does not exist. */
+  public static Map<String, Double> read(Path file) {
+    if (!Files.exists(file)) return new TreeMap<>();
+    try {
+      return MAPPER.readValue(file.toFile(), new TypeReference<TreeMap<String, Double>>() {});
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read scenario durations " + file, e);
+    }
+  }
+
+  public static void write(Path file, Map<String, Double> durations) {
+    try {
+      if (file.getParent() != null) Files.createDirectories(file.getParent());
+      MAPPER.writeValue(file.toFile(), new TreeMap<>(durations));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write scenario durations " + file, e);
+    }
+  }
+
+  /** Adds {@code latest} to the durations in {@code file}, replacing older values. */
+  public static void merge(Path file, Map<String, Double> latest) {
+    Map<String, Double> durations = read(file);
+    durations.putAll(latest);
+    write(file, durations);
+  }
+}
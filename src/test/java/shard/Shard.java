@@ -0,0 +1,78 @@
+package shard;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+
+/**
+ * One shard of a sharded run, given as {@code -Pshard=i/N} with {@code 1 <= i <= N}.
+ *
+ * @param index 1-based index of this shard
+ * @param count number of shards the run is split into
+ */
+public record Shard(int index, int count) {
+
+  public Shard {
+    if (count < 1 || index < 1 || index > count) {
+      throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+    }
+  }
+
+  /** Parses {@code i/N}; returns {@code null} for a blank value, meaning the run is not sharded. */
+  public static Shard parse(String value) {
+    if (value == null || value.isBlank()) return null;
+    String[] parts = value.trim().split("/");
+    try {
+      if (parts.length == 2) {
+        return new Shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    throw new IllegalArgumentException("Invalid shard '" + value + "', expected i/N such as 2/4");
+  }
+
+  /**
+   * Stable key of a scenario or Examples row: its feature path and line, such as {@code
+   * features/booking.feature:26}. Classpath features are keyed by resource name, so the key is the
+   * same on every machine.
+   */
+  public static String key(URI feature, int line) {
+    String path =
+        switch (feature.getScheme() == null ? "" : feature.getScheme()) {
+          case "classpath" -> feature.getSchemeSpecificPart();
+          case "file" -> Path.of(feature).toString();
+          default -> feature.toString();
+        };
+    if (path.startsWith("/") && "classpath".equals(feature.getScheme())) path = path.substring(1);
+    return path + ":" + line;
+  }
+
+  /** The {@link #key(URI, int) key} of a discovered scenario; empty if it has no feature source. */
+  public static Optional<String> key(TestDescriptor descriptor) {
+    Optional<TestSource> source = descriptor.getSource();
+    if (source.isEmpty()) return Optional.empty();
+    if (source.get() instanceof ClasspathResourceSource resource) {
+      return resource
+          .getPosition()
+          .map(FilePosition::getLine)
+          .map(line -> resource.getClasspathResourceName() + ":" + line);
+    }
+    if (source.get() instanceof FileSource file) {
+      return file.getPosition()
+          .map(FilePosition::getLine)
+          .map(line -> key(file.getFile().toURI(), line));
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public String toString() {
+    return index + "/" + count;
+  }
+}
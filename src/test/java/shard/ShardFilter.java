@@ -0,0 +1,56 @@
+package shard;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import utils.ConfigReader;
+
+/**
+ * Keeps only the scenarios of this run's shard ({@code -Pshard=i/N}) after discovery. Registered
+ * with the JUnit Platform launcher through {@code META-INF/services}, so it applies to every run
+ * and includes everything when no shard is configured.
+ *
+ * <p>Every scenario and every Examples row is a separate test, keyed by {@link Shard#key}. The plan
+ * is computed once from all discovered tests, so every shard sees the same assignment; the launcher
+ * then prunes features left without scenarios.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+  private final Shard shard = Shard.parse(ConfigReader.get("shard"));
+  private Map<String, Integer> plan;
+
+  @Override
+  public FilterResult apply(TestDescriptor descriptor) {
+    if (shard == null || !descriptor.isTest()) return FilterResult.included("not sharded");
+    Optional<String> key = Shard.key(descriptor);
+    if (key.isEmpty()) return FilterResult.included("no stable key");
+
+    Integer assigned = plan(descriptor).get(key.get());
+    if (assigned == null || assigned == shard.index() - 1) {
+      return FilterResult.included("assigned to shard " + shard);
+    }
+    return FilterResult.excluded("assigned to shard " + (assigned + 1) + "/" + shard.count());
+  }
+
+  private synchronized Map<String, Integer> plan(TestDescriptor descriptor) {
+    if (plan == null) {
+      TestDescriptor root = descriptor;
+      while (root.getParent().isPresent()) root = root.getParent().get();
+
+      Map<String, TestDescriptor> tests = new LinkedHashMap<>();
+      for (TestDescriptor test : root.getDescendants()) {
+        if (test.isTest()) Shard.key(test).ifPresent(k -> tests.put(k, test));
+      }
+      plan =
+          ShardPlanner.plan(
+              tests.keySet(),
+              shard.count(),
+              ScenarioDurations.read(Path.of(ConfigReader.get("shard.durations"))));
+    }
+    return plan;
+  }
+}
@@ -0,0 +1,73 @@
+package shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Assigns scenarios to shards. Every shard of a run computes the same plan from the same inputs, so
+ * each scenario runs on exactly one of them.
+ *
+ * <p>Without recorded durations a scenario goes to the shard given by a CRC-32 hash of its key,
+ * which does not depend on which other scenarios exist. With durations the planner balances the
+ * shards instead: scenarios are placed longest first, each on the shard with the least total time
+ * so far (LPT scheduling). Scenarios without a recorded duration count as the median of the known
+ * ones.
+ */
+public final class ShardPlanner {
+
+  private ShardPlanner() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  /** Returns the 0-based shard of every key. */
+  public static Map<String, Integer> plan(
+      Collection<String> keys, int shards, Map<String, Double> durationsMs) {
+    Map<String, Integer> plan = new HashMap<>();
+    List<String> known = keys.stream().filter(durationsMs::containsKey).toList();
+    if (known.isEmpty()) {
+      keys.forEach(key -> plan.put(key, hashShard(key, shards)));
+      return plan;
+    }
+
+    double median = median(known.stream().mapToDouble(durationsMs::get).toArray());
+    List<String> ordered = new ArrayList<>(keys);
+    // Longest first; ties by key, so every shard sorts identically
+    ordered.sort(
+        Comparator.comparingDouble((String key) -> -durationsMs.getOrDefault(key, median))
+            .thenComparing(Comparator.naturalOrder()));
+
+    double[] load = new double[shards];
+    PriorityQueue<Integer> leastLoaded =
+        new PriorityQueue<>(
+            Comparator.comparingDouble((Integer shard) -> load[shard])
+                .thenComparing(Comparator.naturalOrder()));
+    for (int shard = 0; shard < shards; shard++) leastLoaded.add(shard);
+    for (String key : ordered) {
+      int shard = leastLoaded.poll();
+      plan.put(key, shard);
+      load[shard] += durationsMs.getOrDefault(key, median);
+      leastLoaded.add(shard);
+    }
+    return plan;
+  }
+
+  static int hashShard(String key, int shards) {
+    CRC32 crc = new CRC32();
+    crc.update(key.getBytes(StandardCharsets.UTF_8));
+    return (int) (crc.getValue() % shards);
+  }
+
+  private static double median(double[] values) {
+    Arrays.sort(values);
+    int mid = values.length / 2;
+    return values.length % 2 == 1 ? values[mid] : (values[mid - 1] + values[mid]) / 2;
+  }
+}
@@ -0,0 +1,301 @@
+package shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Merges the reports of a sharded run, found in {@code <report.path>/shards/*}, into {@code
+ * <report.path>/cucumber} as if the run had not been split:
+ *
+ * <ul>
+ *   <li>{@code cucumber-report.json}: features of all shards, each feature's scenarios in line
+ *       order.
+ *   <li>{@code cucumber-report.html}: the Cucumber messages of all shards in one report. Every
+ *       shard emits the features with its own ids, so each feature is kept once and the test cases
+ *       of later shards are pointed at its scenarios, matched by line.
+ *   <li>{@code bodies/}: the stored request and response bodies the reports link to.
+ * </ul>
+ *
+ * The shards' scenario durations are folded into the planner's durations file. Usage: {@code
+ * ShardReportMerger <report.path> <shard.durations>}.
+ */
+public final class ShardReportMerger {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String MESSAGES_MARKER = "window.CUCUMBER_MESSAGES = ";
+
+  private ShardReportMerger() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException(
+          "Usage: ShardReportMerger <report.path> <shard.durations>");
+    }
+    Path reportPath = Path.of(args[0]);
+    List<Path> shards = shardReportDirs(reportPath);
+    if (shards.isEmpty()) {
+      throw new IllegalStateException("No shard reports found in " + reportPath.resolve("shards"));
+    }
+    Path target = reportPath.resolve("cucumber");
+    Files.createDirectories(target);
+
+    mergeJson(existing(shards, "cucumber-report.json"), target.resolve("cucumber-report.json"));
+    mergeHtml(existing(shards, "cucumber-report.html"), target.resolve("cucumber-report.html"));
+    copyBodies(shards, target.resolve("bodies"));
+
+    Map<String, Double> durations = new HashMap<>();
+    for (Path file : existing(shards, "scenario-durations.json")) {
+      durations.putAll(ScenarioDurations.read(file));
+    }
+    ScenarioDurations.merge(Path.of(args[1]), durations);
+
+    System.out.printf("Merged %d shard reports into %s%n", shards.size(), target);
+  }
+
+  private static List<Path> shardReportDirs(Path reportPath) throws IOException {
+    Path shardsDir = reportPath.resolve("shards");
+    if (!Files.isDirectory(shardsDir)) return List.of();
+    try (Stream<Path> dirs = Files.list(shardsDir)) {
+      return dirs.map(dir -> dir.resolve("cucumber")).filter(Files::isDirectory).sorted().toList();
+    }
+  }
+
+  private static List<Path> existing(List<Path> shards, String name) {
+    return shards.stream().map(dir -> dir.resolve(name)).filter(Files::exists).toList();
+  }
+
+  /** Concatenates the features of all shards, merging features that several shards ran. */
+  static void mergeJson(List<Path> reports, Path target) throws IOException {
+    Map<String, ObjectNode> features = new LinkedHashMap<>();
+    Map<String, List<List<JsonNode>>> scenarios = new HashMap<>();
+    for (Path report : reports) {
+      for (JsonNode feature : MAPPER.readTree(report.toFile())) {
+        String uri = feature.path("uri").asText();
+        features.putIfAbsent(uri, ((ObjectNode) feature).deepCopy());
+        // A scenario's elements are the backgrounds run before it followed by the scenario itself
+        List<JsonNode> group = new ArrayList<>();
+        for (JsonNode element : feature.path("elements")) {
+          group.add(element);
+          if (!"background".equals(element.path("type").asText())) {
+            scenarios.computeIfAbsent(uri, u -> new ArrayList<>()).add(group);
+            group = new ArrayList<>();
+          }
+        }
+      }
+    }
+
+    ArrayNode merged = MAPPER.createArrayNode();
+    features.keySet().stream()
+        .sorted()
+        .forEach(
+            uri -> {
+              ArrayNode elements = MAPPER.createArrayNode();
+              scenarios.getOrDefault(uri, List.of()).stream()
+                  .sorted(Comparator.comparingInt(group -> group.getLast().path("line").asInt()))
+                  .forEach(elements::addAll);
+              merged.add(features.get(uri).set("elements", elements));
+            });
+    MAPPER.writerWithDefaultPrettyPrinter().writeValue(target.toFile(), merged);
+  }
+
+  /**
+   * Merges the Cucumber messages embedded in the shards' HTML reports and writes them into the
+   * first report's page.
+   */
+  static void mergeHtml(List<Path> reports, Path target) throws IOException {
+    if (reports.isEmpty()) return;
+    String page = Files.readString(reports.getFirst(), StandardCharsets.UTF_8);
+    int[] bounds = messageBounds(page, reports.getFirst());
+
+    MessageMerger merger = new MessageMerger();
+    for (Path report : reports) {
+      String html = Files.readString(report, StandardCharsets.UTF_8);
+      int[] b = messageBounds(html, report);
+      merger.add((ArrayNode) MAPPER.readTree(unescapeScript(html.substring(b[0], b[1]))));
+    }
+
+    // The page embeds the messages in a script, where "<" would allow closing it early
+    String messages = MAPPER.writeValueAsString(merger.result()).replace("<", "\\x3C");
+    Files.writeString(
+        target,
+        page.substring(0, bounds[0]) + messages + page.substring(bounds[1]),
+        StandardCharsets.UTF_8);
+  }
+
+  /** Start and end of the JSON array of messages in a Cucumber HTML report. */
+  private static int[] messageBounds(String html, Path report) {
+    int marker = html.indexOf(MESSAGES_MARKER);
+    int scriptEnd = marker < 0 ? -1 : html.indexOf("</script>", marker);
+    int arrayEnd = scriptEnd < 0 ? -1 : html.lastIndexOf(']', scriptEnd);
+    if (arrayEnd < 0) throw new IllegalStateException("No Cucumber messages found in " + report);
+    return new int[] {marker + MESSAGES_MARKER.length(), arrayEnd + 1};
+  }
+
+  /**
+   * Turns the hex escapes the HTML formatter writes ({@code \x3C} for {@code <}) into the
+   * equivalent JSON unicode escapes.
+   */
+  static String unescapeScript(String script) {
+    StringBuilder json = new StringBuilder(script.length());
+    for (int i = 0; i < script.length(); i++) {
+      char c = script.charAt(i);
+      if (c == '\\' && i + 1 < script.length()) {
+        char next = script.charAt(i + 1);
+        if (next == 'x' && i + 3 < script.length()) {
+          json.append("\\u00").append(script, i + 2, i + 4);
+          i += 3;
+        } else {
+          json.append(c).append(next);
+          i++;
+        }
+      } else {
+        json.append(c);
+      }
+    }
+    return json.toString();
+  }
+
+  private static void copyBodies(List<Path> shards, Path target) throws IOException {
+    for (Path shard : shards) {
+      Path bodies = shard.resolve("bodies");
+      if (!Files.isDirectory(bodies)) continue;
+      Files.createDirectories(target);
+      try (Stream<Path> files = Files.list(bodies)) {
+        for (Path file : files.toList()) {
+          // Content-addressed, so a file already copied from another shard is identical
+          Path copy = target.resolve(file.getFileName());
+          if (!Files.exists(copy)) Files.copy(file, copy, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+      }
+    }
+  }
+
+  /**
+   * Combines the message streams of several runs into one. Run-level messages are kept once, the
+   * run counts as successful only if every shard was, and every feature keeps the documents and
+   * scenarios (pickles) of the first shard that reported it.
+   */
+  private static final class MessageMerger {
+    private JsonNode meta;
+    private JsonNode runStarted;
+    private ObjectNode runFinished;
+    private final List<JsonNode> body = new ArrayList<>();
+    private final Set<String> keptUris = new HashSet<>();
+    // Pickle of every kept scenario by "uri:line", and the ids of its steps
+    private final Map<String, JsonNode> keptPickles = new HashMap<>();
+
+    void add(ArrayNode envelopes) {
+      Map<String, Integer> astLines = new HashMap<>();
+      Map<String, String> pickleIds = new HashMap<>();
+      Map<String, String> pickleStepIds = new HashMap<>();
+      Set<String> newUris = new HashSet<>();
+
+      for (JsonNode envelope : envelopes) {
+        String type = envelope.fieldNames().next();
+        JsonNode message = envelope.get(type);
+        switch (type) {
+          case "meta" -> {
+            if (meta == null) meta = envelope;
+          }
+          case "testRunStarted" -> {
+            if (runStarted == null || isBefore(message, runStarted.get(type))) {
+              runStarted = envelope;
+            }
+          }
+          case "testRunFinished" -> addRunFinished(envelope);
+          case "source", "gherkinDocument" -> {
+            String uri = message.path("uri").asText();
+            if (type.equals("gherkinDocument")) collectLines(message, astLines);
+            if (keptUris.contains(uri)) continue;
+            newUris.add(uri);
+            body.add(envelope);
+          }
+          case "pickle" -> {
+            String uri = message.path("uri").asText();
+            JsonNode astIds = message.path("astNodeIds");
+            String key = uri + ":" + astLines.get(astIds.get(astIds.size() - 1).asText());
+            JsonNode kept = keptPickles.get(key);
+            if (keptUris.contains(uri) && kept != null) {
+              pickleIds.put(message.path("id").asText(), kept.path("id").asText());
+              JsonNode steps = message.path("steps");
+              JsonNode keptSteps = kept.path("steps");
+              for (int i = 0; i < steps.size() && i < keptSteps.size(); i++) {
+                pickleStepIds.put(
+                    steps.get(i).path("id").asText(), keptSteps.get(i).path("id").asText());
+              }
+            } else {
+              keptPickles.putIfAbsent(key, message);
+              body.add(envelope);
+            }
+          }
+          case "testCase" -> {
+            ObjectNode testCase = (ObjectNode) message;
+            String pickleId = pickleIds.get(testCase.path("pickleId").asText());
+            if (pickleId != null) testCase.put("pickleId", pickleId);
+            for (JsonNode step : testCase.path("testSteps")) {
+              String stepId = pickleStepIds.get(step.path("pickleStepId").asText());
+              if (stepId != null) ((ObjectNode) step).put("pickleStepId", stepId);
+            }
+            body.add(envelope);
+          }
+          default -> body.add(envelope);
+        }
+      }
+      keptUris.addAll(newUris);
+    }
+
+    private void addRunFinished(JsonNode envelope) {
+      ObjectNode message = (ObjectNode) envelope.get("testRunFinished").deepCopy();
+      if (runFinished == null) {
+        runFinished = message;
+        return;
+      }
+      boolean success =
+          runFinished.path("success").asBoolean() && message.path("success").asBoolean();
+      if (isBefore(runFinished, message)) runFinished = message;
+      runFinished.put("success", success);
+    }
+
+    ArrayNode result() {
+      ArrayNode merged = MAPPER.createArrayNode();
+      if (meta != null) merged.add(meta);
+      if (runStarted != null) merged.add(runStarted);
+      body.forEach(merged::add);
+      if (runFinished != null) merged.addObject().set("testRunFinished", runFinished);
+      return merged;
+    }
+
+    private static boolean isBefore(JsonNode message, JsonNode other) {
+      JsonNode a = message.path("timestamp");
+      JsonNode b = other.path("timestamp");
+      long seconds = a.path("seconds").asLong() - b.path("seconds").asLong();
+      return seconds != 0 ? seconds < 0 : a.path("nanos").asLong() < b.path("nanos").asLong();
+    }
+
+    /** Maps the id of every node of a Gherkin document that has a location to its line. */
+    private static void collectLines(JsonNode node, Map<String, Integer> lines) {
+      if (node.isObject() && node.has("id") && node.has("location")) {
+        lines.put(node.get("id").asText(), node.get("location").path("line").asInt());
+      }
+      if (node.isContainerNode()) node.forEach(child -> collectLines(child, lines));
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package soak;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCaseFinished;
+
+/**
+ * Cucumber plugin of soak runs: records the status and duration of every scenario in the {@link
+ * SoakStats}. It replaces the report plugins there, which would keep every scenario of a many-hour
+ * run in memory.
+ */
+public class SoakPlugin implements ConcurrentEventListener {
+
+  @Override
+  public void setEventPublisher(EventPublisher publisher) {
+    publisher.registerHandlerFor(
+        TestCaseFinished.class,
+        event ->
+            SoakStats.get()
+                .recordScenario(
+                    event.getResult().getStatus().name(), event.getResult().getDuration()));
+  }
+}
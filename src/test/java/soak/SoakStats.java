@@ -0,0 +1,334 @@
+package soak;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import utils.ConfigReader;
+
+/**
+ * Statistics of a soak run, kept in constant memory however long it lasts. Scenario and exchange
+ * times go into fixed-range histograms for the whole run and for the current window of {@code
+ * soak.window.seconds}. Windows start after a warm-up of {@code soak.warmup.seconds}, which only
+ * counts for the whole run; the first window and the last {@code soak.windows} ones are kept for
+ * the summary, older ones are dropped. Every {@code soak.sample.seconds} a sampler notes heap use,
+ * GC count and time and the live thread count into the current window.
+ *
+ * <p>The summary compares the last full window with the first one: exchange p95 latency, the heap
+ * floor (lowest heap use seen in a window, which follows the live set) or the thread count growing
+ * by more than {@code soak.tolerance.percent} is reported as a finding, pointing at a degrading
+ * server or a leak in the harness. Heap and threads are only compared between windows the sampler
+ * reached, and the sample interval may not be longer than a window.
+ */
+public final class SoakStats {
+
+  // Fixed range, so a histogram never grows; longer values are clamped
+  private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+  private static final double[] PERCENTILES = {50, 95, 99};
+  // After the constants, which its windows use
+  private static final SoakStats INSTANCE = new SoakStats();
+
+  private final Duration warmup = Duration.ofSeconds(ConfigReader.getInt("soak.warmup.seconds"));
+  private final Duration windowLength =
+      Duration.ofSeconds(ConfigReader.getInt("soak.window.seconds"));
+  private final int retainedWindows = ConfigReader.getInt("soak.windows");
+  private final Duration sampleInterval =
+      Duration.ofSeconds(ConfigReader.getInt("soak.sample.seconds"));
+  private final double tolerance = Double.parseDouble(ConfigReader.get("soak.tolerance.percent"));
+
+  private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+  private final LongAdder iterations = new LongAdder();
+  private final Window total = new Window(0);
+  private final Deque<Window> windows = new ArrayDeque<>();
+  private Window warmupWindow;
+  private Window first;
+  private volatile Window current;
+  private long startNanos;
+  private ScheduledExecutorService sampler;
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final List<GarbageCollectorMXBean> collectors =
+      ManagementFactory.getGarbageCollectorMXBeans();
+  private long lastGcCount;
+  private long lastGcMillis;
+
+  private SoakStats() {}
+
+  public static SoakStats get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Opens the first window and starts the sampler.
+   *
+   * @throws IllegalArgumentException if a window is shorter than the sample interval, so windows
+   *     would go without resource samples
+   */
+  public synchronized void start() {
+    if (sampleInterval.compareTo(windowLength) > 0 || sampleInterval.isZero()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "soak.sample.seconds (%d) must be between 1 and soak.window.seconds (%d)",
+              sampleInterval.toSeconds(), windowLength.toSeconds()));
+    }
+    startNanos = System.nanoTime();
+    current = new Window(0);
+    if (warmup.isZero()) {
+      first = current;
+    } else {
+      warmupWindow = current;
+    }
+    lastGcCount = gcCount();
+    lastGcMillis = gcMillis();
+    sampler =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("soak-sampler").daemon().factory());
+    sampler.scheduleAtFixedRate(this::sample, 0, sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+    long firstRotation = warmup.isZero() ? windowLength.toMillis() : warmup.toMillis();
+    sampler.scheduleAtFixedRate(
+        this::rotate, firstRotation, windowLength.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public void recordScenario(String status, Duration duration) {
+    Window window = current;
+    if (window == null) return;
+    statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    window.recordScenario(status, duration);
+    total.recordScenario(status, duration);
+  }
+
+  /** Records the total time of one exchange; does nothing outside a soak run. */
+  public void recordExchange(Duration duration) {
+    Window window = current;
+    if (window == null) return;
+    window.exchanges.recordValue(micros(duration));
+    total.exchanges.recordValue(micros(duration));
+  }
+
+  public void iterationFinished() {
+    iterations.increment();
+  }
+
+  private synchronized void rotate() {
+    keep(current);
+    current = new Window(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+    if (first == null) first = current;
+  }
+
+  private void keep(Window window) {
+    if (window == warmupWindow || window == first) return;
+    windows.addLast(window);
+    while (windows.size() > retainedWindows) windows.removeFirst();
+  }
+
+  private void sample() {
+    Window window = current;
+    long heapUsed = memory.getHeapMemoryUsage().getUsed();
+    long gcCount = gcCount();
+    long gcMillis = gcMillis();
+    window.sample(
+        heapUsed, gcCount - lastGcCount, gcMillis - lastGcMillis, threads.getThreadCount());
+    total.sample(
+        heapUsed, gcCount - lastGcCount, gcMillis - lastGcMillis, threads.getThreadCount());
+    lastGcCount = gcCount;
+    lastGcMillis = gcMillis;
+  }
+
+  private long gcCount() {
+    return collectors.stream().mapToLong(c -> Math.max(0, c.getCollectionCount())).sum();
+  }
+
+  private long gcMillis() {
+    return collectors.stream().mapToLong(c -> Math.max(0, c.getCollectionTime())).sum();
+  }
+
+  /**
+   * Stops the sampler, prints the summary and writes it as JSON to {@code file}.
+   *
+   * @return the findings, empty if nothing degraded
+   */
+  public synchronized List<String> finish(Path file) {
+    sampler.shutdownNow();
+    try {
+      sampler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    sample();
+    keep(current);
+    current = null;
+
+    // The last window is usually cut short by the end of the run; compare the last full one
+    List<Window> full = new ArrayList<>(windows);
+    if (full.size() > 1) full.removeLast();
+    Window compared = full.isEmpty() ? null : full.getLast();
+    List<String> findings = first == null ? List.of() : findings(compared);
+
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("durationSeconds", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+    summary.put("iterations", iterations.sum());
+    Map<String, Long> byStatus = new TreeMap<>();
+    statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+    summary.put("scenarios", byStatus);
+    summary.put("total", total.summary());
+    summary.put("firstWindow", first == null ? null : first.summary());
+    summary.put("lastWindows", windows.stream().map(Window::summary).toList());
+    summary.put("findings", findings);
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      new ObjectMapper()
+          .enable(SerializationFeature.INDENT_OUTPUT)
+          .writeValue(file.toFile(), summary);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write soak summary to " + file, e);
+    }
+
+    System.out.printf(
+        "Soak run: %s in %d iterations, scenarios %s%n",
+        Duration.ofSeconds((Long) summary.get("durationSeconds")), iterations.sum(), byStatus);
+    System.out.println("  whole run:    " + total);
+    if (first != null) System.out.println("  first window: " + first);
+    if (compared != null) System.out.println("  last window:  " + compared);
+    findings.forEach(finding -> System.out.println("  Finding: " + finding));
+    System.out.println("  summary: " + file);
+    return findings;
+  }
+
+  private List<String> findings(Window last) {
+    List<String> findings = new ArrayList<>();
+    if (last == null || first.exchanges.getTotalCount() == 0) return findings;
+    double before = first.exchanges.getValueAtPercentile(95) / 1000.0;
+    double after = last.exchanges.getValueAtPercentile(95) / 1000.0;
+    if (last.exchanges.getTotalCount() > 0 && grew(before, after)) {
+      findings.add(
+          String.format(
+              "Exchange p95 rose from %.1f ms to %.1f ms since the first window", before, after));
+    }
+    // A window the sampler never reached has no heap floor and no threads to compare
+    if (first.samples == 0 || last.samples == 0) return findings;
+    if (grew(first.heapFloor, last.heapFloor)) {
+      findings.add(
+          String.format(
+              "Heap floor grew from %s to %s since the first window",
+              megabytes(first.heapFloor), megabytes(last.heapFloor)));
+    }
+    if (grew(first.maxThreads, last.maxThreads)) {
+      findings.add(
+          String.format(
+              "Live threads grew from %d to %d since the first window",
+              first.maxThreads, last.maxThreads));
+    }
+    return findings;
+  }
+
+  private boolean grew(double before, double after) {
+    return after > before * (1 + tolerance / 100);
+  }
+
+  private static long micros(Duration duration) {
+    return Math.clamp(TimeUnit.NANOSECONDS.toMicros(duration.toNanos()), 0, MAX_MICROS);
+  }
+
+  private static String megabytes(long bytes) {
+    return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+  }
+
+  /** Scenarios, exchanges and resource samples of one window of the run. */
+  private static final class Window {
+    private final long startSecond;
+    private final Histogram scenarios = new ConcurrentHistogram(MAX_MICROS, 2);
+    private final Histogram exchanges = new ConcurrentHistogram(MAX_MICROS, 2);
+    private final LongAdder failed = new LongAdder();
+    // Written by the sampler thread only
+    private int samples;
+    private long heapFloor = Long.MAX_VALUE;
+    private long heapPeak;
+    private long gcCount;
+    private long gcMillis;
+    private int maxThreads;
+
+    Window(long startSecond) {
+      this.startSecond = startSecond;
+    }
+
+    void recordScenario(String status, Duration duration) {
+      scenarios.recordValue(micros(duration));
+      if (!"PASSED".equals(status)) failed.increment();
+    }
+
+    void sample(long heapUsed, long gcs, long gcTime, int threadCount) {
+      samples++;
+      heapFloor = Math.min(heapFloor, heapUsed);
+      heapPeak = Math.max(heapPeak, heapUsed);
+      gcCount += gcs;
+      gcMillis += gcTime;
+      maxThreads = Math.max(maxThreads, threadCount);
+    }
+
+    Map<String, Object> summary() {
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("startSecond", startSecond);
+      summary.put("scenarios", scenarios.getTotalCount());
+      summary.put("notPassed", failed.sum());
+      summary.put("scenarioMillis", percentiles(scenarios));
+      summary.put("exchanges", exchanges.getTotalCount());
+      summary.put("exchangeMillis", percentiles(exchanges));
+      summary.put("samples", samples);
+      if (samples > 0) {
+        summary.put("heapFloorBytes", heapFloor);
+        summary.put("heapPeakBytes", heapPeak);
+        summary.put("gcCount", gcCount);
+        summary.put("gcMillis", gcMillis);
+        summary.put("maxThreads", maxThreads);
+      }
+      return summary;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+      Map<String, Double> values = new LinkedHashMap<>();
+      if (histogram.getTotalCount() == 0) return values;
+      for (double p : PERCENTILES) {
+        values.put("p" + (int) p, histogram.getValueAtPercentile(p) / 1000.0);
+      }
+      values.put("max", histogram.getMaxValue() / 1000.0);
+      return values;
+    }
+
+    @Override
+    public String toString() {
+      String requests =
+          String.format(
+              "%d scenarios (%d not passed), %d exchanges p95 %.1f ms",
+              scenarios.getTotalCount(),
+              failed.sum(),
+              exchanges.getTotalCount(),
+              exchanges.getValueAtPercentile(95) / 1000.0);
+      if (samples == 0) return requests + ", heap and threads not sampled";
+      return String.format(
+          "%s, heap %s-%s, %d GCs in %d ms, up to %d threads",
+          requests, megabytes(heapFloor), megabytes(heapPeak), gcCount, gcMillis, maxThreads);
+    }
+  }
+}
@@ -2,12 +2,15 @@ package steps;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import auth.TokenCache;
 import context.ScenarioContext;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import java.util.regex.Pattern;
+import utils.ConfigReader;
+import utils.RequestLoggingFilter;
 import utils.TestUtils;
 
 public class AuthSteps extends BaseSteps {
@@ -27,6 +30,26 @@ public class AuthSteps extends BaseSteps {
     ctx.setPayload("password", TestUtils.parseValue(passwordRaw, "password"));
   }
 
+  /**
+   * Authenticates through the shared {@link TokenCache} instead of POSTing {@code /auth}: the token
+   * is reused across scenarios until it expires. Uses the configured password.
+   */
+  @Given("I am authenticated as {word}")
+  public void i_am_authenticated_as(String usernameRaw) {
+    String username = String.valueOf(TestUtils.parseValue(usernameRaw, "username"));
+    var token =
+        TokenCache.get()
+            .token(
+                ConfigReader.get("base.url"),
+                username,
+                ConfigReader.get("password"),
+                new RequestLoggingFilter(scenario));
+    ctx.setHeader("Cookie", "token=" + token.value());
+    log(
+        String.format(
+            "Authenticated as %s with a token issued %d s ago", username, token.age().toSeconds()));
+  }
+
   @Then("I store the token as {string}")
   public void i_store_the_token_as(String key) {
     String token = ctx.getResponseString("token");
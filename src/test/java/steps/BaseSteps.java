@@ -2,12 +2,15 @@ package steps;
 
 import context.ScenarioContext;
 import io.cucumber.java.Scenario;
+import utils.ExchangeLog;
 
 public abstract class BaseSteps {
   public Scenario scenario;
   public ScenarioContext ctx;
 
   public void log(String message) {
+    // Exchanges logged so far come first, keeping the report in the order things happened
+    ExchangeLog.get().flush(scenario);
     scenario.log(message);
   }
 }
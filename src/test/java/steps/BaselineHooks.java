@@ -0,0 +1,88 @@
+package steps;
+
+import baseline.LatencyBaseline;
+import context.ScenarioContext;
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.BeforeAll;
+import io.cucumber.java.Scenario;
+import java.nio.file.Path;
+import utils.ConfigReader;
+
+/**
+ * Turns the suite into a latency regression gate. With {@code baseline.mode} other than {@code off}
+ * every passing scenario's request times are summarized and appended to the baseline store; in
+ * {@code warn} and {@code fail} mode they are first compared against the scenario's recorded
+ * window, and a median or p95 worse by more than {@code baseline.tolerance.percent} is logged or
+ * fails the scenario. A run flagged as a regression is not appended.
+ */
+public class BaselineHooks {
+
+  private static LatencyBaseline baseline;
+
+  private final ScenarioContext ctx;
+
+  public BaselineHooks(ScenarioContext context) {
+    this.ctx = context;
+  }
+
+  @BeforeAll
+  public static void openBaseline() {
+    if (!"off".equals(mode())) {
+      baseline =
+          LatencyBaseline.open(
+              Path.of(ConfigReader.get("baseline.path")), ConfigReader.getInt("baseline.window"));
+    }
+  }
+
+  @AfterAll
+  public static void closeBaseline() {
+    if (baseline != null) {
+      baseline.close();
+      baseline = null;
+    }
+  }
+
+  @After
+  public void compareWithBaseline(Scenario scenario) {
+    if (baseline == null || scenario.isFailed() || ctx.getResponseTimings().isEmpty()) return;
+
+    var key =
+        new LatencyBaseline.Key(
+            scenario.getUri().toString(), scenario.getName(), scenario.getLine(), target());
+    var run =
+        LatencyBaseline.Run.of(
+            ctx.getResponseTimings().stream()
+                .map(timing -> timing.total().toNanos() / 1e6)
+                .toList());
+
+    if (!"record".equals(mode())) {
+      var comparison = baseline.compare(key, run);
+      if (comparison.isPresent()) {
+        double tolerance = Double.parseDouble(ConfigReader.get("baseline.tolerance.percent"));
+        if (comparison.get().isRegression(tolerance)) {
+          if ("fail".equals(mode())) {
+            throw new AssertionError(
+                String.format(
+                    "Latency regression above %.0f%% tolerance. %s", tolerance, comparison.get()));
+          }
+          scenario.log("⚠️ [LATENCY REGRESSION]\n" + comparison.get());
+          // Not recorded, or enough regressed runs would become the baseline and end the warning
+          return;
+        } else {
+          scenario.log(comparison.get().toString());
+        }
+      }
+    }
+    baseline.append(key, run);
+  }
+
+  private static String mode() {
+    return ConfigReader.get("baseline.mode").toLowerCase();
+  }
+
+  // The stub listens on a random port, so its runs are grouped under a fixed name
+  private static String target() {
+    return Boolean.parseBoolean(ConfigReader.get("stub")) ? "stub" : ConfigReader.get("base.url");
+  }
+}
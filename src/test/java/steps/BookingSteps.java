@@ -2,17 +2,29 @@ package steps;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import context.ScenarioContext;
+import http.PayloadEncoder;
+import http.XmlExtractor;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.UnaryOperator;
 import utils.TestUtils;
 
 public class BookingSteps extends BaseSteps {
 
+  // Plain characters, characters JSON, XML or forms escape, and non-ASCII ones
+  private static final String ENCODING_CHARS = "aZ09 -_.~\"\\&<>%+=/\n\té\u00ffЖ\u20ac😀";
+
   public BookingSteps(ScenarioContext context) {
     this.ctx = context;
   }
@@ -51,48 +63,113 @@ public class BookingSteps extends BaseSteps {
 
   @Then("the response should contain a booking id")
   public void the_response_should_contain_a_booking_id() {
-    var response = ctx.getResponse();
-    assertNotNull(response.jsonPath().get("bookingid"));
+    String bookingId = ctx.getResponseString("bookingid");
+    assertNotNull(bookingId);
+    ctx.addCreatedBooking(bookingId);
   }
 
   @Then("the JSON booking details should match the request")
   public void the_json_booking_details_should_match_the_request() {
-    Map<String, Object> requestPayload = ctx.getPayload();
-    var response = ctx.getResponse();
-
-    var booking = response.jsonPath().getMap("booking");
-
-    assertEquals(requestPayload.get("firstname"), booking.get("firstname"));
-    assertEquals(requestPayload.get("lastname"), booking.get("lastname"));
-    assertEquals(requestPayload.get("totalprice"), booking.get("totalprice"));
+    assertBookingMatchesRequest(ctx.getResponseValues("booking.*"), "booking.");
   }
 
   @Then("the XML booking details should match the request")
   public void the_booking_details_should_match_the_request() {
-    Map<String, Object> requestPayload = ctx.getPayload();
-    var response = ctx.getResponse();
+    Map<String, Object> booking =
+        XmlExtractor.extract(ctx.getResponse().asByteArray(), List.of("created-booking.booking.*"));
+    // XML carries only text, so the expected values are compared in their text form: guessing a
+    // type from the text would turn a firstname of "123" into a number
+    assertBookingMatchesRequest(
+        booking, "created-booking.booking.", value -> value == null ? null : String.valueOf(value));
+  }
 
-    String contentType = response.getContentType();
-    String body = response.asString().trim();
+  /**
+   * Compares every request payload field, nested maps included, with the response value at {@code
+   * prefix} followed by the field's dot path, and reports all mismatches at once.
+   */
+  private void assertBookingMatchesRequest(Map<String, Object> booking, String prefix) {
+    assertBookingMatchesRequest(booking, prefix, UnaryOperator.identity());
+  }
+
+  /** As above, with each expected value first converted into the form the response carries. */
+  private void assertBookingMatchesRequest(
+      Map<String, Object> booking, String prefix, UnaryOperator<Object> expectedForm) {
+    Map<String, Object> expected = new LinkedHashMap<>();
+    flatten(ctx.getPayload(), "", expected);
+
+    List<String> mismatches = new ArrayList<>();
+    expected.forEach(
+        (path, value) -> {
+          Object actual = booking.get(prefix + path);
+          if (!Objects.equals(expectedForm.apply(value), actual)) {
+            mismatches.add(path + ": expected <" + value + "> but was <" + actual + ">");
+          }
+        });
+    assertTrue(mismatches.isEmpty(), "Booking details do not match the request: " + mismatches);
+  }
+
+  private static void flatten(Map<?, ?> map, String prefix, Map<String, Object> fields) {
+    map.forEach(
+        (key, value) -> {
+          if (value instanceof Map<?, ?> nested) {
+            flatten(nested, prefix + key + ".", fields);
+          } else {
+            fields.put(prefix + key, value);
+          }
+        });
+  }
 
-    Map<String, Object> booking;
+  // Request bodies are rendered from cached templates; this guards that they stay byte for byte
+  // what the full serialization produces. The seed is fixed so a failure can be reproduced.
+  @Then("{int} random booking payloads should encode to the same bytes with and without templates")
+  public void random_booking_payloads_should_encode_to_the_same_bytes(int payloads)
+      throws JsonProcessingException {
+    String contentType = ctx.getContentType("application/json");
+    Random random = new Random(payloads);
+    for (int i = 0; i < payloads; i++) {
+      Map<String, Object> payload = randomBookingPayload(random);
+      byte[] templated = PayloadEncoder.encode(payload, contentType);
+      byte[] full = PayloadEncoder.encodeUncached(payload, contentType);
+      assertArrayEquals(full, templated, "Payload " + i + " encodes differently: " + payload);
+    }
+    log(payloads + " payloads encode to the same bytes as " + contentType);
+  }
 
-    io.restassured.path.xml.XmlPath xml = new io.restassured.path.xml.XmlPath(body);
-    // Manually read individual fields from XML
-    booking =
-        Map.of(
-            "firstname", xml.getString("created-booking.booking.firstname"),
-            "lastname", xml.getString("created-booking.booking.lastname"),
-            "totalprice", parseIntSafe(xml.getString("created-booking.booking.totalprice")),
-            "depositpaid", parseBooleanSafe(xml.getString("created-booking.booking.depositpaid")),
-            "checkin", xml.getString("created-booking.booking.bookingdates.checkin"),
-            "checkout", xml.getString("created-booking.booking.bookingdates.checkout"),
-            "additionalneeds", xml.getString("created-booking.booking.additionalneeds"));
-    ;
+  /**
+   * A booking payload with random values of the kinds the features use, so the payloads share a few
+   * template shapes but exercise every slot encoding and the fallbacks.
+   */
+  private static Map<String, Object> randomBookingPayload(Random random) {
+    Map<String, Object> dates = new LinkedHashMap<>();
+    dates.put("checkin", randomString(random));
+    dates.put("checkout", random.nextInt(10) == 0 ? null : randomString(random));
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("firstname", randomString(random));
+    payload.put("lastname", randomString(random));
+    payload.put(
+        "totalprice",
+        switch (random.nextInt(3)) {
+          case 0 -> random.nextInt();
+          case 1 -> random.nextLong();
+          default -> null;
+        });
+    payload.put("depositpaid", random.nextBoolean());
+    payload.put("bookingdates", dates);
+    payload.put("additionalneeds", random.nextInt(10) == 0 ? null : randomString(random));
+    return payload;
+  }
 
-    assertEquals(requestPayload.get("firstname"), booking.get("firstname"));
-    assertEquals(requestPayload.get("lastname"), booking.get("lastname"));
-    assertEquals(requestPayload.get("totalprice"), booking.get("totalprice"));
+  private static String randomString(Random random) {
+    StringBuilder sb = new StringBuilder();
+    int length = random.nextInt(13);
+    // Most strings are plain, as in the features, so the template slots are exercised too
+    boolean plain = random.nextInt(4) != 0;
+    for (int i = 0; i < length; i++) {
+      int bound = plain ? 4 : ENCODING_CHARS.codePointCount(0, ENCODING_CHARS.length());
+      sb.appendCodePoint(
+          ENCODING_CHARS.codePointAt(ENCODING_CHARS.offsetByCodePoints(0, random.nextInt(bound))));
+    }
+    return sb.toString();
   }
 
   @Then("I store the booking id as {string}")
@@ -100,6 +177,7 @@ public class BookingSteps extends BaseSteps {
     String token = ctx.getResponseString("bookingid");
     assertNotNull(token, "Cannot store a null bookingid.");
     ctx.getData().put(key, token);
+    ctx.addCreatedBooking(token);
     log("Stored bookingid: " + key + " = " + token);
   }
 
@@ -116,18 +194,4 @@ public class BookingSteps extends BaseSteps {
     log("Token 2: " + token2);
     log("Successfully validated that token1 != token2.");
   }
-
-  private Object parseIntSafe(String value) {
-    try {
-      return Integer.parseInt(value);
-    } catch (Exception e) {
-      return value;
-    }
-  }
-
-  private Object parseBooleanSafe(String value) {
-    if ("true".equalsIgnoreCase(value)) return true;
-    if ("false".equalsIgnoreCase(value)) return false;
-    return value;
-  }
 }
@@ -0,0 +1,65 @@
+package steps;
+
+import cleanup.BookingCleanup;
+import context.ScenarioContext;
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import utils.ConfigReader;
+
+/**
+ * Hands the bookings every scenario created to the {@link BookingCleanup} when it ends, and flushes
+ * the cleanup at the end of the run, before the stub stops. Bookings that could not be deleted are
+ * listed in {@code <report.path>/cucumber/cleanup-failures.txt}.
+ */
+public class CleanupHooks {
+
+  private static final int REPORTED_FAILURES = 10;
+
+  private static boolean failuresWritten;
+
+  private final ScenarioContext ctx;
+
+  public CleanupHooks(ScenarioContext context) {
+    this.ctx = context;
+  }
+
+  @After
+  public void handOverBookings() {
+    BookingCleanup.get().addAll(ctx.getCreatedBookings());
+  }
+
+  // Higher runs first: the deletes need the stub, which StubHooks stops at the default order
+  @AfterAll(order = 20000)
+  public static void flushCleanup() {
+    BookingCleanup.Report report = BookingCleanup.get().flush();
+    if (report.bookings() == 0) return;
+    System.err.println(report);
+    if (report.failures().isEmpty()) return;
+
+    Path file = Path.of(ConfigReader.get("report.path"), "cucumber", "cleanup-failures.txt");
+    List<String> lines =
+        report.failures().entrySet().stream()
+            .map(failure -> failure.getKey() + "\t" + failure.getValue())
+            .toList();
+    lines.stream().limit(REPORTED_FAILURES).forEach(line -> System.err.println("  " + line));
+    try {
+      Files.createDirectories(file.getParent());
+      // A soak run flushes after every pass over the suite: the later passes add to the file
+      if (failuresWritten) {
+        Files.write(file, lines, StandardOpenOption.APPEND);
+      } else {
+        Files.write(file, lines);
+        failuresWritten = true;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write " + file, e);
+    }
+    System.err.println("Bookings not deleted are listed in " + file);
+  }
+}
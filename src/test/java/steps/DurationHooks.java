@@ -0,0 +1,45 @@
+package steps;
+
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import shard.ScenarioDurations;
+import shard.Shard;
+import utils.ConfigReader;
+
+/**
+ * Records how long every scenario takes, for the shard planner. The run's durations are written to
+ * {@code <report.path>/cucumber/scenario-durations.json}; an unsharded run also folds them into
+ * {@code shard.durations} directly, while sharded runs leave that to the merge task.
+ */
+public class DurationHooks {
+
+  private static final Map<String, Double> durations = new ConcurrentHashMap<>();
+
+  private long startNanos;
+
+  @Before(order = Integer.MIN_VALUE)
+  public void startClock() {
+    startNanos = System.nanoTime();
+  }
+
+  @After(order = Integer.MIN_VALUE)
+  public void recordDuration(Scenario scenario) {
+    double millis = (System.nanoTime() - startNanos) / 1e6;
+    durations.put(Shard.key(scenario.getUri(), scenario.getLine()), Math.round(millis * 10) / 10.0);
+  }
+
+  @AfterAll
+  public static void writeDurations() {
+    if (durations.isEmpty()) return;
+    ScenarioDurations.write(
+        Path.of(ConfigReader.get("report.path"), "cucumber", "scenario-durations.json"), durations);
+    if (Shard.parse(ConfigReader.get("shard")) == null) {
+      ScenarioDurations.merge(Path.of(ConfigReader.get("shard.durations")), durations);
+    }
+  }
+}
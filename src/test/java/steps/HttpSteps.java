@@ -1,28 +1,47 @@
 package steps;
 
-import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import context.ScenarioContext;
+import dataset.Dataset;
+import dataset.DatasetReplay;
+import fuzz.Fuzzer;
+import http.EndpointTimings;
+import http.HttpTransport;
+import http.OutgoingRequest;
+import http.PayloadEncoder;
+import http.RequestLimiter;
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
-import io.restassured.config.EncoderConfig;
-import io.restassured.config.RestAssuredConfig;
-import io.restassured.specification.RequestSpecification;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import load.LoadGenerator;
+import soak.SoakStats;
 import utils.ConfigReader;
+import utils.ExchangeLog;
+import utils.LargeString;
 import utils.RequestLoggingFilter;
 import utils.TestUtils;
 
 public class HttpSteps extends BaseSteps {
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+
   private final XmlMapper xmlMapper = new XmlMapper();
 
   public HttpSteps(ScenarioContext context) {
@@ -34,21 +53,54 @@ public class HttpSteps extends BaseSteps {
     this.scenario = scenario;
   }
 
-  private void executeAndLogResponse(
-      RequestSpecification requestSpec, String method, String endpoint) {
+  @After
+  public void logConnectionStats() {
+    String stats = HttpTransport.configured().connectionStats();
+    if (stats != null) log(stats);
+  }
+
+  @AfterStep
+  public void flushExchangeLog() {
+    ExchangeLog.get().flush(scenario);
+  }
+
+  @AfterAll
+  public static void writeEndpointTimings() {
+    EndpointTimings.get()
+        .writeJson(Path.of(ConfigReader.get("report.path"), "cucumber", "endpoint-timings.json"));
+  }
+
+  private void executeAndLogResponse(OutgoingRequest request) {
+    var logger = new RequestLoggingFilter(scenario);
     ctx.setResponse(
-        requestSpec
-            .when()
-            .filter(new RequestLoggingFilter(scenario))
-            .request(method.toUpperCase(), ConfigReader.get("base.url") + endpoint)
-            .then()
-            .extract()
-            .response());
-  }
-
-  @Given("the request body contains a {int}KB string for the {word} field")
-  public void the_request_body_contains_a_kb_string_for_the_field(int sizeKB, String fieldName) {
-    var data = TestUtils.generateLargeString(sizeKB * 1024);
+        RequestLimiter.get().send(HttpTransport.configured(), request, logger).orThrow());
+    ctx.addResponseTiming(logger.timing());
+    EndpointTimings.get().record(request.method(), request.url(), logger.timing());
+    SoakStats.get().recordExchange(logger.timing().total());
+  }
+
+  private OutgoingRequest buildRequest(
+      Map<String, String> headers, byte[] body, String method, String endpoint) {
+    return new OutgoingRequest(method, url(endpoint), headers, body);
+  }
+
+  // Endpoints may refer to values stored by earlier steps, e.g. "/booking/{id}"
+  private String url(String endpoint) {
+    Matcher placeholder = PLACEHOLDER.matcher(endpoint);
+    StringBuilder path = new StringBuilder();
+    while (placeholder.find()) {
+      String value = ctx.getData().get(placeholder.group(1));
+      assertNotNull(value, "No value stored as '" + placeholder.group(1) + "' for " + endpoint);
+      placeholder.appendReplacement(path, Matcher.quoteReplacement(value));
+    }
+    placeholder.appendTail(path);
+    return ConfigReader.get("base.url") + path;
+  }
+
+  @Given("the request body contains a {size} string for the {word} field")
+  public void the_request_body_contains_a_large_string_for_the_field(Long size, String fieldName) {
+    // Streamed into the request body when it is sent, so even GB-sized fields use no heap
+    var data = new LargeString(size);
     log("Setting " + fieldName + " to " + data);
     ctx.setPayload(fieldName, data);
   }
@@ -76,63 +128,196 @@ public class HttpSteps extends BaseSteps {
   @When("I {word} payload to {string}")
   public void i_send_payload_with_method_to_endpoint(String method, String endpoint)
       throws JsonProcessingException {
-    var requestSpec =
-        given()
-            .config(
-                RestAssuredConfig.config()
-                    .encoderConfig(
-                        EncoderConfig.encoderConfig()
-                            .appendDefaultContentCharsetToContentTypeIfUndefined(false)));
+    executeAndLogResponse(buildPayloadRequest(method, endpoint));
+  }
+
+  @When("I {word} payload to {string} {int} times with concurrency {int}")
+  public void i_send_payload_times_with_concurrency(
+      String method, String endpoint, int times, int concurrency) throws JsonProcessingException {
+    var request = buildPayloadRequest(method, endpoint);
+    var result =
+        LoadGenerator.runClosedLoop(HttpTransport.configured(), request, times, concurrency);
+    ctx.setLoadResult(result);
+    log(result.toString());
+  }
+
+  @When("I {word} payload to {string} at {int} requests per second for {int} seconds")
+  public void i_send_payload_at_constant_rate(
+      String method, String endpoint, int ratePerSecond, int seconds)
+      throws JsonProcessingException {
+    var request = buildPayloadRequest(method, endpoint);
+    var result =
+        LoadGenerator.runOpenLoop(
+            HttpTransport.configured(), request, ratePerSecond, Duration.ofSeconds(seconds));
+    ctx.setLoadResult(result);
+    log(result.toString());
+  }
+
+  // Every row becomes a valid booking payload with the row's values as overrides, sent with the
+  // Content-Type and headers stored in the scenario context
+  @When("I {word} each row of {string} to {string} with concurrency {int} expecting status {int}")
+  public void i_send_each_dataset_row(
+      String method, String file, String endpoint, int concurrency, int expectedStatus) {
+    var contentType = ctx.getContentType("application/json");
+    var headers = new LinkedHashMap<>(ctx.getHeaders());
+    headers.put("Content-Type", contentType);
+    var url = url(endpoint);
+    var result =
+        DatasetReplay.run(
+            HttpTransport.configured(),
+            Dataset.open(Path.of(ConfigReader.get("dataset.dir"), file)),
+            concurrency,
+            expectedStatus,
+            values ->
+                new OutgoingRequest(
+                    method,
+                    url,
+                    headers,
+                    PayloadEncoder.encode(
+                        TestUtils.createValidBookingPayload(values), contentType)),
+            Path.of(ConfigReader.get("report.path"), "cucumber", "datasets"));
+    ctx.setDatasetResult(result);
+    log(result.toString());
+  }
+
+  @Then("no dataset row should fail")
+  public void no_dataset_row_should_fail() {
+    var result = ctx.getDatasetResult();
+    assertEquals(
+        0,
+        result.failures(),
+        String.format(
+            "%d of %d dataset rows failed. First failures:%n%s%nAll failures: %s",
+            result.failures(),
+            result.rows(),
+            String.join(System.lineSeparator(), result.failureSample()),
+            result.failureFile()));
+  }
+
+  // Each case is sent with the headers stored in the scenario context and its own Content-Type
+  @When("I fuzz {word} {string} with {int} cases")
+  public void i_fuzz_with_cases(String method, String endpoint, int cases) {
+    String configuredSeed = ConfigReader.get("fuzz.seed");
+    long seed =
+        configuredSeed.isEmpty()
+            ? ThreadLocalRandom.current().nextLong()
+            : Long.parseLong(configuredSeed);
+    var result =
+        Fuzzer.run(
+            HttpTransport.configured(),
+            method,
+            endpoint,
+            url(endpoint),
+            ctx.getHeaders(),
+            cases,
+            seed,
+            ConfigReader.getInt("fuzz.concurrency"),
+            ConfigReader.getInt("fuzz.shrink.max"));
+    ctx.setFuzzResult(result);
+    log(result.toString());
+    result.reproducers().forEach(this::log);
+  }
 
+  @Then("no fuzz case should fail")
+  public void no_fuzz_case_should_fail() {
+    var result = ctx.getFuzzResult();
+    assertEquals(
+        0,
+        result.failures(),
+        String.format(
+            "%d of %d fuzz cases failed; rerun with -Pfuzz.seed=%d. Shrunk reproducers:%n%s",
+            result.failures(),
+            result.cases(),
+            result.seed(),
+            String.join(System.lineSeparator(), result.reproducers())));
+  }
+
+  // Builds the request from the payload, Content-Type and headers stored in the scenario context
+  private OutgoingRequest buildPayloadRequest(String method, String endpoint)
+      throws JsonProcessingException {
     var fullContentType = ctx.getContentType("application/json");
-    var mediaType = fullContentType.split(";")[0].trim();
-    var headers = ctx.getHeaders();
-    for (var header : headers.entrySet()) {
-      requestSpec.header(header.getKey(), header.getValue());
-    }
-    requestSpec.header("Content-Type", fullContentType);
-
-    var payload = ctx.getPayload();
-
-    switch (mediaType.toLowerCase()) {
-      case "application/x-www-form-urlencoded" -> requestSpec.formParams(payload);
-      case "text/xml", "application/xml" -> {
-        XmlMapper xmlMapper = new XmlMapper();
-        xmlMapper.configure(
-            com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator.Feature.WRITE_XML_DECLARATION,
-            true);
-        xmlMapper.configure(
-            com.fasterxml.jackson.databind.SerializationFeature.WRAP_ROOT_VALUE, true);
-
-        var xmlPayload =
-            xmlMapper
-                .writerWithDefaultPrettyPrinter()
-                .withRootName("booking")
-                .writeValueAsString(payload);
-        requestSpec.body(xmlPayload);
-      }
-      default -> {
-        try {
-          String jsonPayload = new ObjectMapper().writeValueAsString(payload);
-          requestSpec.body(jsonPayload.getBytes());
-        } catch (JsonProcessingException e) {
-          log("⚠️ Failed to serialize payload: " + e.getMessage());
-          throw e;
-        }
+    var headers = new LinkedHashMap<>(ctx.getHeaders());
+    headers.put("Content-Type", fullContentType);
+
+    byte[] body;
+    try {
+      var streamingBody = PayloadEncoder.encodeStreaming(ctx.getPayload(), fullContentType);
+      if (streamingBody != null) {
+        return new OutgoingRequest(method, url(endpoint), headers, null, streamingBody);
       }
+      body = PayloadEncoder.encode(ctx.getPayload(), fullContentType);
+    } catch (JsonProcessingException e) {
+      log("⚠️ Failed to serialize payload: " + e.getMessage());
+      throw e;
     }
 
-    executeAndLogResponse(requestSpec, method, endpoint);
+    return buildRequest(headers, body, method, endpoint);
   }
 
   @When("I {word} raw to {string}")
   public void i_send_raw_body_with_method_to_endpoint(String method, String endpoint) {
     String contentType = ctx.getContentType("application/json");
-    RequestSpecification requestSpec = given().header("Content-Type", contentType);
     String payload = ctx.getRawBody();
-    if (payload != null) requestSpec.body(payload.getBytes());
+    byte[] body = payload == null ? null : payload.getBytes(StandardCharsets.UTF_8);
+    var headers = new LinkedHashMap<>(ctx.getHeaders());
+    headers.put("Content-Type", contentType);
     log("Content-Type: " + contentType + " payload: " + payload);
-    executeAndLogResponse(requestSpec, method, endpoint);
+    executeAndLogResponse(buildRequest(headers, body, method, endpoint));
+  }
+
+  @Then("the load test throughput should be at least {double} requests per second")
+  public void the_load_test_throughput_should_be_at_least(double expectedThroughput) {
+    var result = ctx.getLoadResult();
+    assertTrue(
+        result.throughput() >= expectedThroughput,
+        String.format(
+            "Throughput too low. Expected at least %.1f req/s, but was %.1f req/s",
+            expectedThroughput, result.throughput()));
+  }
+
+  @Then("the load test error rate should be below {double}%")
+  public void the_load_test_error_rate_should_be_below(double maxErrorPercent) {
+    var result = ctx.getLoadResult();
+    assertTrue(
+        result.errorRate() * 100 < maxErrorPercent,
+        String.format(
+            "Error rate too high. Expected below %.2f%%, but was %.2f%% (%s)",
+            maxErrorPercent, result.errorRate() * 100, result));
+  }
+
+  @Then("at least {double}% of the load test responses should have status {int}")
+  public void at_least_percent_of_load_test_responses_should_have_status(
+      double minPercent, int expectedStatus) {
+    var result = ctx.getLoadResult();
+    double actualPercent =
+        result.requests() == 0
+            ? 0
+            : result.countWithStatus(expectedStatus) * 100.0 / result.requests();
+    assertTrue(
+        actualPercent >= minPercent,
+        String.format(
+            "Expected at least %.2f%% of responses with status %d, but was %.2f%%. Distribution: %s",
+            minPercent, expectedStatus, actualPercent, result.statusDistribution()));
+  }
+
+  @Then("the response time should be below {int} ms")
+  public void the_response_time_should_be_below(int maxMillis) {
+    var timing = ctx.getResponseTiming();
+    assertTrue(
+        timing.total().toMillis() < maxMillis,
+        String.format(
+            "Response time too high. Expected below %d ms, but was %s", maxMillis, timing));
+  }
+
+  @Then("the p{double} latency should be below {int} ms")
+  public void the_percentile_latency_should_be_below(double percentile, int maxMillis) {
+    var result = ctx.getLoadResult();
+    var latency = result.latencyAtPercentile(percentile);
+    assertTrue(
+        latency.toNanos() < maxMillis * 1_000_000L,
+        String.format(
+            "Latency at the %.1fth percentile too high. Expected below %d ms, but was %.1f ms (%s)",
+            percentile, maxMillis, latency.toNanos() / 1e6, result));
   }
 
   @Then("the response body should be plain text {string}")
@@ -148,8 +333,7 @@ public class HttpSteps extends BaseSteps {
 
   @Then("the response body should only contain keys: {string}")
   public void the_response_body_should_only_contain_keys(String expectedKeysList) {
-    Map<String, ?> actualMap = ctx.getJSONResponse().getMap("");
-    Set<String> actualKeys = actualMap.keySet();
+    Set<String> actualKeys = Set.copyOf(ctx.getResponseKeys());
     Set<String> expectedKeys = Set.of(expectedKeysList.split("\\s*,\\s*"));
 
     expectedKeys.forEach(
@@ -0,0 +1,36 @@
+package steps;
+
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.BeforeAll;
+import java.nio.file.Path;
+import metrics.MetricsExporter;
+import utils.ConfigReader;
+
+/**
+ * Publishes the run's HTTP metrics when {@code metrics=true}: on the scrape endpoint at {@code
+ * metrics.port}, if set, and as OpenMetrics snapshots in {@code <report.path>/metrics}.
+ */
+public class MetricsHooks {
+
+  private static MetricsExporter exporter;
+
+  @BeforeAll
+  public static void startExporter() {
+    if (!Boolean.parseBoolean(ConfigReader.get("metrics"))) return;
+    String port = ConfigReader.get("metrics.port");
+    exporter =
+        new MetricsExporter(
+            port.isEmpty() ? null : Integer.valueOf(port),
+            Path.of(ConfigReader.get("report.path"), "metrics"),
+            ConfigReader.getInt("metrics.snapshot.seconds"));
+    if (exporter.url() != null) System.err.println("Serving metrics on " + exporter.url());
+  }
+
+  @AfterAll
+  public static void stopExporter() {
+    if (exporter != null) {
+      exporter.close();
+      exporter = null;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package steps;
+
+import io.cucumber.java.ParameterType;
+
+/** Custom Cucumber parameter types shared by all step definitions. */
+public class ParameterTypes {
+
+  /** A size in binary units, e.g. {@code 500KB}, {@code 10MB} or {@code 2GB}, as a byte count. */
+  @ParameterType("(\\d+)(KB|MB|GB)")
+  public Long size(String amount, String unit) {
+    long multiplier =
+        switch (unit) {
+          case "KB" -> 1L << 10;
+          case "MB" -> 1L << 20;
+          default -> 1L << 30;
+        };
+    return Math.multiplyExact(Long.parseLong(amount), multiplier);
+  }
+}
@@ -0,0 +1,32 @@
+package steps;
+
+import cache.ResultCache;
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.Scenario;
+import shard.Shard;
+import utils.ConfigReader;
+
+/**
+ * Records every scenario's result in the {@link ResultCache} when {@code result.cache} is not
+ * {@code off}, for the next run to order and skip scenarios by.
+ */
+public class ResultCacheHooks {
+
+  // Runs after the other hooks, so a failure in any of them is recorded
+  @After(order = Integer.MIN_VALUE)
+  public void recordResult(Scenario scenario) {
+    if (!enabled()) return;
+    ResultCache.get()
+        .record(Shard.key(scenario.getUri(), scenario.getLine()), scenario.getStatus().name());
+  }
+
+  @AfterAll
+  public static void saveResults() {
+    if (enabled()) ResultCache.get().save();
+  }
+
+  private static boolean enabled() {
+    return !"off".equalsIgnoreCase(ConfigReader.get("result.cache"));
+  }
+}
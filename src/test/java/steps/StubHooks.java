@@ -0,0 +1,31 @@
+package steps;
+
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.BeforeAll;
+import stub.RestfulBookerStub;
+import utils.ConfigReader;
+
+/**
+ * Starts the in-process Restful Booker stub before the run when {@code stub=true} and points {@code
+ * base.url} at it, so every step transparently talks to the stub instead of the remote API.
+ */
+public class StubHooks {
+
+  private static RestfulBookerStub stub;
+
+  @BeforeAll
+  public static void startStub() {
+    if (Boolean.parseBoolean(ConfigReader.get("stub"))) {
+      stub = RestfulBookerStub.start(ConfigReader.getInt("stub.port"));
+      System.setProperty("base.url", stub.baseUrl());
+    }
+  }
+
+  @AfterAll
+  public static void stopStub() {
+    if (stub != null) {
+      stub.close();
+      stub = null;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayInputStream;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Parses JSON, XML and form-urlencoded request bodies into a Jackson tree, the way the Express body
+ * parsers of the real Restful Booker service do. Malformed bodies raise {@link
+ * MalformedBodyException}, which the stub answers with {@code 400 Bad Request}.
+ */
+final class RequestBodies {
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper().enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+  private RequestBodies() {
+    throw new UnsupportedOperationException("This is a utility class and cannot be instantiated.");
+  }
+
+  static ObjectMapper mapper() {
+    return MAPPER;
+  }
+
+  /** Parses the body according to its media type; an empty body yields an empty object. */
+  static ObjectNode parse(String mediaType, byte[] body, Charset charset) {
+    if (body.length == 0) return MAPPER.createObjectNode();
+    return switch (mediaType) {
+      case "application/x-www-form-urlencoded" -> parseForm(new String(body, charset));
+      case "text/xml", "application/xml" -> parseXml(body);
+      default -> parseJson(body);
+    };
+  }
+
+  static ObjectNode parseJson(byte[] body) {
+    try {
+      JsonNode node = MAPPER.readTree(body);
+      if (node instanceof ObjectNode object) return object;
+      throw new MalformedBodyException("JSON body is not an object");
+    } catch (JsonProcessingException e) {
+      throw new MalformedBodyException(e.getOriginalMessage());
+    } catch (java.io.IOException e) {
+      throw new MalformedBodyException(e.getMessage());
+    }
+  }
+
+  // Supports both "bookingdates.checkin" and "bookingdates[checkin]" style nested keys
+  static ObjectNode parseForm(String body) {
+    ObjectNode root = MAPPER.createObjectNode();
+    for (String pair : body.split("&")) {
+      if (pair.isEmpty()) continue;
+      String[] kv = pair.split("=", 2);
+      String key = URLDecoder.decode(kv[0], StandardCharsets.UTF_8);
+      String value = kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "";
+      String[] path = key.replace("]", "").split("[.\\[]");
+      ObjectNode current = root;
+      for (int i = 0; i < path.length - 1; i++) {
+        current =
+            current.has(path[i]) ? (ObjectNode) current.get(path[i]) : current.putObject(path[i]);
+      }
+      current.put(path[path.length - 1], value);
+    }
+    return root;
+  }
+
+  static ObjectNode parseXml(byte[] body) {
+    try {
+      DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+      Element root =
+          factory.newDocumentBuilder().parse(new ByteArrayInputStream(body)).getDocumentElement();
+      return toObject(root);
+    } catch (Exception e) {
+      throw new MalformedBodyException(e.getMessage());
+    }
+  }
+
+  private static ObjectNode toObject(Element element) {
+    ObjectNode node = MAPPER.createObjectNode();
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof Element childElement) {
+        if (hasElementChildren(childElement)) {
+          node.set(childElement.getTagName(), toObject(childElement));
+        } else {
+          node.put(childElement.getTagName(), childElement.getTextContent());
+        }
+      }
+    }
+    return node;
+  }
+
+  private static boolean hasElementChildren(Element element) {
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof Element) return true;
+    }
+    return false;
+  }
+
+  /** Signals a request body that cannot be parsed. */
+  static class MalformedBodyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    MalformedBodyException(String message) {
+      super(message);
+    }
+  }
+}
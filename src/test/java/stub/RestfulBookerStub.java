@@ -0,0 +1,376 @@
+package stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import http.BodyEncoding;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import utils.ConfigReader;
+
+/**
+ * In-process stub of the Restful Booker {@code /auth} and {@code /booking} endpoints, built on the
+ * JDK HTTP server with one virtual thread per exchange. It reproduces the wire behaviour the
+ * feature files assert on (plain-text 400/413 errors, ETag/Server/Allow headers, JSON/XML/form
+ * bodies, XML content negotiation), including the known bugs documented in the {@code
+ * *.known-bugs.feature} files, so suites can run offline against it.
+ */
+public final class RestfulBookerStub implements AutoCloseable {
+
+  // Express body-parser default limit ("100kb")
+  private static final int BODY_LIMIT = 100 * 1024;
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<Integer, ObjectNode> bookings = new ConcurrentHashMap<>();
+  private final Set<String> tokens = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger nextBookingId = new AtomicInteger(1);
+  private final SecureRandom random = new SecureRandom();
+
+  private RestfulBookerStub(int port) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+  }
+
+  /** Starts the stub on the given port; {@code 0} picks a free ephemeral port. */
+  public static RestfulBookerStub start(int port) {
+    try {
+      RestfulBookerStub stub = new RestfulBookerStub(port);
+      stub.server.start();
+      return stub;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to start Restful Booker stub", e);
+    }
+  }
+
+  public String baseUrl() {
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getHostString() + ":" + address.getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      route(exchange);
+    } catch (PayloadTooLargeException e) {
+      sendStatus(exchange, 413);
+    } catch (RequestBodies.MalformedBodyException e) {
+      sendStatus(exchange, 400);
+    } catch (InvalidBookingException | RuntimeException e) {
+      sendStatus(exchange, 500);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void route(HttpExchange exchange) throws IOException, InvalidBookingException {
+    String path = exchange.getRequestURI().getPath();
+    String method = exchange.getRequestMethod().toUpperCase();
+
+    if (path.equals("/auth")) {
+      switch (method) {
+        case "POST" -> createToken(exchange);
+        case "OPTIONS" -> sendAllow(exchange, "POST");
+        default -> sendStatus(exchange, 404);
+      }
+    } else if (path.equals("/booking")) {
+      switch (method) {
+        case "POST" -> createBooking(exchange);
+        case "GET", "HEAD" -> listBookings(exchange);
+        case "OPTIONS" -> sendAllow(exchange, "GET,HEAD,POST");
+        default -> sendStatus(exchange, 404);
+      }
+    } else if (path.matches("/booking/\\d+")) {
+      int id = Integer.parseInt(path.substring("/booking/".length()));
+      switch (method) {
+        case "GET", "HEAD" -> getBooking(exchange, id);
+        case "DELETE" -> deleteBooking(exchange, id);
+        // PUT and PATCH are not implemented, so they are not advertised either
+        case "OPTIONS" -> sendAllow(exchange, "GET,HEAD,DELETE");
+        default -> sendStatus(exchange, 404);
+      }
+    } else {
+      sendStatus(exchange, 404);
+    }
+  }
+
+  private void createToken(HttpExchange exchange) throws IOException {
+    ObjectNode credentials = readBody(exchange);
+    JsonNode username = credentials.get("username");
+    JsonNode password = credentials.get("password");
+
+    ObjectNode response = RequestBodies.mapper().createObjectNode();
+    if (isText(username, ConfigReader.get("username"))
+        && isText(password, ConfigReader.get("password"))) {
+      byte[] tokenBytes = new byte[8];
+      random.nextBytes(tokenBytes);
+      String token = HexFormat.of().formatHex(tokenBytes).substring(1);
+      tokens.add(token);
+      response.put("token", token);
+    } else {
+      // Known bug: bad credentials are reported with 200 OK
+      response.put("reason", "Bad credentials");
+    }
+    sendJson(exchange, 200, response);
+  }
+
+  private void createBooking(HttpExchange exchange) throws IOException, InvalidBookingException {
+    String accept = exchange.getRequestHeaders().getFirst("Accept");
+    if (accept != null && accept.contains("text/xml")) {
+      // Known bug: the service refuses to answer in text/xml
+      readBody(exchange);
+      sendStatus(exchange, 418);
+      return;
+    }
+
+    // Known bug: XML is only understood when sent as plain "text/xml" without parameters
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    if (contentType != null
+        && contentType.toLowerCase().contains("xml")
+        && !contentType.trim().equalsIgnoreCase("text/xml")) {
+      readBody(exchange);
+      throw new InvalidBookingException("Content-Type");
+    }
+
+    ObjectNode booking = toBooking(readBody(exchange));
+    int id = nextBookingId.getAndIncrement();
+    bookings.put(id, booking);
+
+    if (accept != null && accept.contains("application/xml")) {
+      // Known bug: the XML document is served as text/html
+      String xml =
+          "<?xml version='1.0'?><created-booking><bookingid>"
+              + id
+              + "</bookingid>"
+              + toXml("booking", booking)
+              + "</created-booking>";
+      send(exchange, 200, "text/html; charset=utf-8", xml.getBytes(StandardCharsets.UTF_8));
+    } else {
+      ObjectNode response = RequestBodies.mapper().createObjectNode();
+      response.put("bookingid", id);
+      response.set("booking", booking);
+      sendJson(exchange, 200, response);
+    }
+  }
+
+  private void listBookings(HttpExchange exchange) throws IOException {
+    var ids = RequestBodies.mapper().createArrayNode();
+    bookings.keySet().stream().sorted().forEach(id -> ids.addObject().put("bookingid", id));
+    sendJson(exchange, 200, ids);
+  }
+
+  private void getBooking(HttpExchange exchange, int id) throws IOException {
+    ObjectNode booking = bookings.get(id);
+    if (booking == null) {
+      sendStatus(exchange, 404);
+    } else {
+      sendJson(exchange, 200, booking);
+    }
+  }
+
+  private void deleteBooking(HttpExchange exchange, int id) throws IOException {
+    if (!isAuthorized(exchange)) {
+      sendStatus(exchange, 403);
+    } else if (bookings.remove(id) == null) {
+      sendStatus(exchange, 405);
+    } else {
+      sendStatus(exchange, 201);
+    }
+  }
+
+  private boolean isAuthorized(HttpExchange exchange) {
+    String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+    if (cookie != null) {
+      for (String part : cookie.split(";")) {
+        String[] kv = part.trim().split("=", 2);
+        if (kv.length == 2 && kv[0].equals("token") && tokens.contains(kv[1])) return true;
+      }
+    }
+    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+    String basic =
+        Base64.getEncoder()
+            .encodeToString(
+                (ConfigReader.get("username") + ":" + ConfigReader.get("password"))
+                    .getBytes(StandardCharsets.UTF_8));
+    return ("Basic " + basic).equals(authorization);
+  }
+
+  // Validates and normalizes a booking; invalid bookings make the real service fail with 500
+  private static ObjectNode toBooking(ObjectNode body) throws InvalidBookingException {
+    JsonNode dates = body.get("bookingdates");
+    if (dates == null || !dates.isObject()) throw new InvalidBookingException("bookingdates");
+
+    ObjectNode booking = RequestBodies.mapper().createObjectNode();
+    booking.put("firstname", requiredText(body, "firstname"));
+    booking.put("lastname", requiredText(body, "lastname"));
+    booking.put("totalprice", toInt(body.get("totalprice")));
+    booking.put("depositpaid", toBoolean(body.get("depositpaid")));
+    ObjectNode bookingDates = booking.putObject("bookingdates");
+    bookingDates.put("checkin", toDate(dates.get("checkin")));
+    bookingDates.put("checkout", toDate(dates.get("checkout")));
+    booking.put("additionalneeds", requiredText(body, "additionalneeds"));
+    return booking;
+  }
+
+  private static String requiredText(JsonNode body, String field) throws InvalidBookingException {
+    JsonNode value = body.get(field);
+    if (value == null || value.isNull() || value.isContainerNode()) {
+      throw new InvalidBookingException(field);
+    }
+    return value.asText();
+  }
+
+  private static int toInt(JsonNode value) throws InvalidBookingException {
+    if (value != null && value.isNumber()) return value.intValue();
+    try {
+      if (value != null && value.isTextual()) return Integer.parseInt(value.asText().trim());
+    } catch (NumberFormatException ignored) {
+    }
+    throw new InvalidBookingException("totalprice");
+  }
+
+  private static boolean toBoolean(JsonNode value) throws InvalidBookingException {
+    if (value != null && value.isBoolean()) return value.booleanValue();
+    if (value != null && value.isTextual()) {
+      if ("true".equals(value.asText())) return true;
+      if ("false".equals(value.asText())) return false;
+    }
+    throw new InvalidBookingException("depositpaid");
+  }
+
+  private static String toDate(JsonNode value) throws InvalidBookingException {
+    try {
+      if (value != null && value.isTextual()) return LocalDate.parse(value.asText()).toString();
+    } catch (DateTimeParseException ignored) {
+    }
+    throw new InvalidBookingException("bookingdates");
+  }
+
+  private static boolean isText(JsonNode node, String expected) {
+    return node != null && node.isTextual() && node.asText().equals(expected);
+  }
+
+  private static ObjectNode readBody(HttpExchange exchange) throws IOException {
+    String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+    String mediaType =
+        contentType == null ? "application/json" : contentType.split(";")[0].trim().toLowerCase();
+    byte[] body = readLimited(exchange);
+    return RequestBodies.parse(mediaType, body, BodyEncoding.charsetOf(contentType));
+  }
+
+  private static byte[] readLimited(HttpExchange exchange) throws IOException {
+    InputStream in = exchange.getRequestBody();
+    String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+    if (contentLength != null && Long.parseLong(contentLength.trim()) > BODY_LIMIT) {
+      in.transferTo(OutputStream.nullOutputStream());
+      throw new PayloadTooLargeException();
+    }
+    byte[] body = in.readNBytes(BODY_LIMIT + 1);
+    if (body.length > BODY_LIMIT) {
+      // Drain the rest so the client can read the response instead of seeing a reset connection
+      in.transferTo(OutputStream.nullOutputStream());
+      throw new PayloadTooLargeException();
+    }
+    return body;
+  }
+
+  private static String toXml(String name, JsonNode node) {
+    StringBuilder sb = new StringBuilder("<").append(name).append(">");
+    if (node.isObject()) {
+      node.properties().forEach(field -> sb.append(toXml(field.getKey(), field.getValue())));
+    } else {
+      sb.append(node.asText().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+    }
+    return sb.append("</").append(name).append(">").toString();
+  }
+
+  private static void sendAllow(HttpExchange exchange, String methods) throws IOException {
+    exchange.getResponseHeaders().set("Allow", methods);
+    send(exchange, 200, "text/html; charset=utf-8", methods.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void sendJson(HttpExchange exchange, int status, JsonNode body)
+      throws IOException {
+    send(
+        exchange,
+        status,
+        "application/json; charset=utf-8",
+        RequestBodies.mapper().writeValueAsBytes(body));
+  }
+
+  // Mirrors Express' res.sendStatus(): the reason phrase as a plain-text body
+  private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+    String reason =
+        switch (status) {
+          case 201 -> "Created";
+          case 400 -> "Bad Request";
+          case 403 -> "Forbidden";
+          case 404 -> "Not Found";
+          case 405 -> "Method Not Allowed";
+          case 413 -> "Payload Too Large";
+          case 418 -> "I'm a Teapot";
+          default -> "Internal Server Error";
+        };
+    send(exchange, status, "text/plain; charset=utf-8", reason.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void send(HttpExchange exchange, int status, String contentType, byte[] body)
+      throws IOException {
+    var headers = exchange.getResponseHeaders();
+    headers.set("Server", "Cowboy");
+    headers.set("X-Powered-By", "Express");
+    headers.set("Content-Type", contentType);
+    headers.set("ETag", etag(body));
+
+    boolean head = exchange.getRequestMethod().equalsIgnoreCase("HEAD");
+    exchange.sendResponseHeaders(status, head ? -1 : body.length);
+    if (!head) exchange.getResponseBody().write(body);
+  }
+
+  // Express-style weak ETag: W/"<length in hex>-<base64 SHA-1 prefix>"
+  private static String etag(byte[] body) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-1").digest(body);
+      String digest = Base64.getEncoder().withoutPadding().encodeToString(hash).substring(0, 27);
+      return "W/\"" + Integer.toHexString(body.length) + "-" + digest + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static class PayloadTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+  }
+
+  private static class InvalidBookingException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    InvalidBookingException(String field) {
+      super("Invalid booking: " + field);
+    }
+  }
+}
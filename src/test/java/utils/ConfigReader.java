@@ -6,7 +6,8 @@ import java.util.Properties;
 
 /**
  * Loads configuration values from src/main/resources/config.properties, allowing overrides via Java
- * System Properties (e.g., from Gradle CLI).
+ * System Properties (e.g., from Gradle CLI). The properties are loaded once during class
+ * initialization and only read afterwards, so lookups are safe from parallel scenarios.
  */
 public class ConfigReader {
   private static final Properties properties = new Properties();
@@ -37,4 +38,8 @@ public class ConfigReader {
     }
     return fileValue.trim();
   }
+
+  public static int getInt(String key) {
+    return Integer.parseInt(get(key));
+  }
 }
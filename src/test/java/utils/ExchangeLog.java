@@ -0,0 +1,188 @@
+package utils;
+
+import io.cucumber.java.Scenario;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+import jfr.ExchangeLogEvent;
+
+/**
+ * Background writer for the exchange entries of the Cucumber report. Entries are formatted on a
+ * single daemon thread, so the thread sending a request only captures what it logs. They are held
+ * per scenario until {@link #flush} hands them to the scenario in submission order; the step
+ * definitions flush before every log line of their own and after every step. Both are timed as
+ * {@link ExchangeLogEvent}s in the flight recording.
+ *
+ * <p>Bodies longer than {@code log.body.max.bytes} are truncated in the report. With {@code
+ * log.body.sidecar=true} the full body is also written, gzip-compressed, to {@code
+ * <report.path>/cucumber/bodies/<sha-256>.txt.gz} and linked from the entry. Files are named by
+ * their content, so a body sent or received many times is stored once.
+ *
+ * <p>With {@code log.exchanges=false}, as in soak runs, exchanges are not logged at all.
+ */
+public final class ExchangeLog {
+
+  private static final ExchangeLog INSTANCE = new ExchangeLog();
+  private static final String BODIES_DIR = "bodies";
+
+  private final boolean enabled = Boolean.parseBoolean(ConfigReader.get("log.exchanges"));
+  private final ExecutorService writer =
+      Executors.newSingleThreadExecutor(
+          Thread.ofPlatform().name("exchange-log").daemon().factory());
+  private final Map<String, List<Future<Entry>>> pending = new ConcurrentHashMap<>();
+  private final Set<String> storedBodies = ConcurrentHashMap.newKeySet();
+  private final int maxBodyBytes = ConfigReader.getInt("log.body.max.bytes");
+  private final boolean sidecars = Boolean.parseBoolean(ConfigReader.get("log.body.sidecar"));
+  private final Path reportDir = Path.of(ConfigReader.get("report.path"), "cucumber");
+
+  private ExchangeLog() {}
+
+  public static ExchangeLog get() {
+    return INSTANCE;
+  }
+
+  /** Formats {@code entry} on the writer thread; it is logged into {@code scenario} on flush. */
+  public void submit(Scenario scenario, Callable<Entry> entry) {
+    if (!enabled) return;
+    Future<Entry> future = writer.submit(() -> format(entry));
+    // Added atomically with respect to flush, which takes the whole list
+    pending.compute(
+        scenario.getId(),
+        (id, entries) -> {
+          List<Future<Entry>> list = entries == null ? new ArrayList<>() : entries;
+          list.add(future);
+          return list;
+        });
+  }
+
+  /** Logs the pending entries of {@code scenario}, waiting for those still being formatted. */
+  public void flush(Scenario scenario) {
+    List<Future<Entry>> entries = pending.remove(scenario.getId());
+    if (entries == null) return;
+    ExchangeLogEvent event = new ExchangeLogEvent();
+    event.begin();
+    for (Future<Entry> future : entries) {
+      try {
+        Entry entry = future.get();
+        scenario.log(entry.text());
+        if (entry.link() != null) {
+          scenario.attach(entry.link().uri(), "text/uri-list", entry.link().name());
+        }
+      } catch (ExecutionException e) {
+        scenario.log("⚠️ Could not log exchange: " + e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "flush";
+      event.entries = entries.size();
+      event.commit();
+    }
+  }
+
+  private static Entry format(Callable<Entry> entry) throws Exception {
+    ExchangeLogEvent event = new ExchangeLogEvent();
+    event.begin();
+    Entry formatted = entry.call();
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "format";
+      event.entries = 1;
+      event.characters = formatted.text().length();
+      event.bodyStored = formatted.link() != null;
+      event.commit();
+    }
+    return formatted;
+  }
+
+  /**
+   * Appends {@code body} decoded with {@code charset} and XML-escaped, cut at {@code
+   * log.body.max.bytes}. Returns the link to the stored full body if it was truncated and sidecars
+   * are enabled, else {@code null}.
+   */
+  Link appendBody(StringBuilder sb, byte[] body, Charset charset, String name) {
+    if (body.length <= maxBodyBytes) {
+      appendText(sb, new String(body, charset));
+      return null;
+    }
+    int cut = maxBodyBytes;
+    if (charset.equals(StandardCharsets.UTF_8)) {
+      // Do not split a multi-byte character
+      while (cut > 0 && (body[cut] & 0xC0) == 0x80) cut--;
+    }
+    appendText(sb, new String(body, 0, cut, charset));
+    sb.append("\n… [truncated: ").append(cut).append(" of ").append(body.length);
+    sb.append(" bytes shown");
+    Link link = null;
+    if (sidecars) {
+      String uri = store(body);
+      sb.append(", full body: ").append(uri);
+      link = new Link(uri, name + " body (" + body.length + " bytes)");
+    }
+    sb.append(']');
+    return link;
+  }
+
+  static void appendText(StringBuilder sb, String text) {
+    TestUtils.appendEscapedXml(sb, text, 0, text.length());
+  }
+
+  /** Stores {@code body} once per content and returns its path relative to the HTML report. */
+  private String store(byte[] body) {
+    String name = sha256(body) + ".txt.gz";
+    String uri = BODIES_DIR + "/" + name;
+    if (!storedBodies.add(name)) return uri;
+
+    Path file = reportDir.resolve(BODIES_DIR).resolve(name);
+    if (Files.exists(file)) return uri;
+    try {
+      Files.createDirectories(file.getParent());
+      // Written aside and moved, so a reader never sees a partial file
+      Path temp = Files.createTempFile(file.getParent(), name, ".tmp");
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+        out.write(body);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      storedBodies.remove(name);
+      throw new UncheckedIOException("Could not store body " + file, e);
+    }
+    return uri;
+  }
+
+  private static String sha256(byte[] body) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** Formatted report text of one request or response, with an optional link to its full body. */
+  public record Entry(String text, Link link) {}
+
+  /** Report attachment pointing at a stored body. */
+  public record Link(String uri, String name) {}
+}
@@ -0,0 +1,23 @@
+package utils;
+
+/**
+ * Lazy stand-in for {@code TestUtils.generateLargeString(length)} in a request payload. The
+ * characters are never materialized: the payload encoder streams them straight into the request
+ * body, so fields far beyond what a {@code String} or the heap can hold (e.g. 2 GB) can be sent.
+ *
+ * @param length number of {@link #FILL} characters
+ */
+public record LargeString(long length) {
+
+  /** The repeated character; plain ASCII, so it needs no escaping in JSON, XML or forms. */
+  public static final char FILL = 'A';
+
+  public LargeString {
+    if (length < 0) throw new IllegalArgumentException("Length must not be negative: " + length);
+  }
+
+  @Override
+  public String toString() {
+    return "<" + length + " x '" + FILL + "'>";
+  }
+}
@@ -1,15 +1,33 @@
 package utils;
 
+import http.BodyEncoding;
+import http.ConnectionPool;
+import http.ExchangeTiming;
+import http.StreamingBody;
 import io.cucumber.java.Scenario;
 import io.restassured.filter.Filter;
 import io.restassured.filter.FilterContext;
+import io.restassured.http.Headers;
 import io.restassured.response.Response;
 import io.restassured.specification.FilterableRequestSpecification;
 import io.restassured.specification.FilterableResponseSpecification;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
+/**
+ * Logs every request/response exchange, with its {@link ExchangeTiming}, into the Cucumber report.
+ * A new filter is created for each request and bound to the scenario that issued it, so parallel
+ * scenarios never share an instance. Transports that do not go through RestAssured measure the
+ * exchange themselves and call {@link #logRequest} and {@link #logResponse} directly.
+ *
+ * <p>Only the parts of the exchange are captured on the calling thread; formatting, truncation and
+ * storing large bodies happen on the {@link ExchangeLog} writer.
+ */
 public class RequestLoggingFilter implements Filter {
 
   private final Scenario scenario;
+  private ExchangeTiming timing;
+  private Duration limiterWait;
 
   public RequestLoggingFilter(Scenario scenario) {
     this.scenario = scenario;
@@ -21,56 +39,108 @@ public class RequestLoggingFilter implements Filter {
       FilterableResponseSpecification responseSpec,
       FilterContext context) {
 
+    logRequest(
+        requestSpec.getMethod(),
+        requestSpec.getURI(),
+        requestSpec.getHeaders(),
+        requestSpec.getBody());
+
+    ConnectionPool pool = ConnectionPool.get();
+    pool.takeConnectNanos();
+    long start = System.nanoTime();
+
+    // Send actual request; RestAssured returns once the headers are in and reads the body lazily
+    Response response = context.next(requestSpec, responseSpec);
+    long headersReceived = System.nanoTime();
+    response.asByteArray();
+    long end = System.nanoTime();
+
+    logResponse(response, ExchangeTiming.of(start, pool.takeConnectNanos(), headersReceived, end));
+    return response;
+  }
+
+  /** Timing of the logged exchange, or {@code null} before the response has been logged. */
+  public ExchangeTiming timing() {
+    return timing;
+  }
+
+  /**
+   * Notes the time the request spent in the {@link http.RequestLimiter}, logged next to the
+   * response's timing; call before sending.
+   */
+  public void setLimiterWait(Duration limiterWait) {
+    this.limiterWait = limiterWait;
+  }
+
+  public void logRequest(String method, String uri, Headers headers, Object body) {
+    ExchangeLog.get().submit(scenario, () -> requestEntry(method, uri, headers, body));
+  }
+
+  public void logResponse(Response response, ExchangeTiming timing) {
+    this.timing = timing;
+    int status = response.statusCode();
+    Headers headers = response.getHeaders();
+    String contentType = response.getContentType();
+    // Already buffered by the transport, so this is only a reference to the bytes
+    byte[] body = response.getBody() == null ? null : response.asByteArray();
+    Duration waited = limiterWait;
+    ExchangeLog.get()
+        .submit(scenario, () -> responseEntry(status, timing, waited, headers, contentType, body));
+  }
+
+  private static ExchangeLog.Entry requestEntry(
+      String method, String uri, Headers headers, Object body) {
     StringBuilder sb = new StringBuilder();
-    sb.append("➡️ [REQUEST]\n")
-        .append(requestSpec.getMethod())
-        .append(" ")
-        .append(requestSpec.getURI())
-        .append("\n");
+    sb.append("➡️ [REQUEST]\n").append(method).append(" ").append(uri).append("\n");
+    appendHeaders(sb, headers);
 
-    sb.append("Headers:\n");
-    requestSpec
-        .getHeaders()
-        .forEach(
-            h ->
-                sb.append("  ").append(h.getName()).append(": ").append(h.getValue()).append("\n"));
-
-    if (requestSpec.getBody() != null) {
-      Object body = requestSpec.getBody();
-      String bodyString;
-
-      if (body instanceof byte[]) {
-        bodyString = new String((byte[]) body, java.nio.charset.StandardCharsets.UTF_8);
+    ExchangeLog.Link link = null;
+    if (body != null) {
+      sb.append("Body:\n");
+      if (body instanceof byte[] bytes) {
+        link = ExchangeLog.get().appendBody(sb, bytes, StandardCharsets.UTF_8, "Request");
+      } else if (body instanceof StreamingBody streamingBody) {
+        ExchangeLog.appendText(sb, streamingBody.preview());
       } else {
-        bodyString = String.valueOf(body);
+        byte[] bytes = String.valueOf(body).getBytes(StandardCharsets.UTF_8);
+        link = ExchangeLog.get().appendBody(sb, bytes, StandardCharsets.UTF_8, "Request");
       }
-
-      sb.append("Body:\n").append(TestUtils.escapeXml(bodyString));
     }
-    scenario.log(sb.toString());
-    sb.setLength(0);
-
-    // Send actual request
-    Response response = context.next(requestSpec, responseSpec);
+    return new ExchangeLog.Entry(sb.toString(), link);
+  }
 
+  private static ExchangeLog.Entry responseEntry(
+      int status,
+      ExchangeTiming timing,
+      Duration limiterWait,
+      Headers headers,
+      String contentType,
+      byte[] body) {
+    StringBuilder sb = new StringBuilder();
     sb.append("⬅️ [RESPONSE]\n")
         .append("Status: ")
-        .append(response.statusCode())
+        .append(status)
         .append("\n")
-        .append("Headers:\n");
-    response
-        .getHeaders()
-        .forEach(
-            h ->
-                sb.append("  ").append(h.getName()).append(": ").append(h.getValue()).append("\n"));
-
-    if (response.getBody() != null) {
-      var body = TestUtils.escapeXml(response.asString());
-      sb.append("Body:\n").append(body);
+        .append("Time: ")
+        .append(timing)
+        .append("\n");
+    if (limiterWait != null) {
+      sb.append(String.format("Limiter wait: %.1f ms\n", limiterWait.toNanos() / 1e6));
     }
+    appendHeaders(sb, headers);
 
-    scenario.log(sb.toString());
+    ExchangeLog.Link link = null;
+    if (body != null) {
+      sb.append("Body:\n");
+      link =
+          ExchangeLog.get().appendBody(sb, body, BodyEncoding.charsetOf(contentType), "Response");
+    }
+    return new ExchangeLog.Entry(sb.toString(), link);
+  }
 
-    return response;
+  private static void appendHeaders(StringBuilder sb, Headers headers) {
+    sb.append("Headers:\n");
+    headers.forEach(
+        h -> sb.append("  ").append(h.getName()).append(": ").append(h.getValue()).append("\n"));
   }
 }
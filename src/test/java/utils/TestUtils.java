@@ -112,7 +112,46 @@ public final class TestUtils {
     return payload;
   }
 
+  /** Escapes {@code &}, {@code <} and {@code >}; returns {@code xml} itself if it has none. */
   public static String escapeXml(String xml) {
-    return xml.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    if (xml.indexOf('&') < 0 && xml.indexOf('<') < 0 && xml.indexOf('>') < 0) return xml;
+    StringBuilder sb = new StringBuilder(xml.length() + 16);
+    appendEscapedXml(sb, xml, 0, xml.length());
+    return sb.toString();
+  }
+
+  /**
+   * Appends {@code text[from, to)} to {@code sb} with {@link #escapeXml} escaping. Each special
+   * character is located with {@link String#indexOf(int, int)}, which only moves forward, so the
+   * text is scanned once and copied in runs between the escapes.
+   */
+  public static void appendEscapedXml(StringBuilder sb, String text, int from, int to) {
+    int amp = nextIndex(text, '&', from, to);
+    int lt = nextIndex(text, '<', from, to);
+    int gt = nextIndex(text, '>', from, to);
+    int run = from;
+    while (true) {
+      int at = Math.min(amp, Math.min(lt, gt));
+      if (at >= to) break;
+      sb.append(text, run, at);
+      char c = text.charAt(at);
+      if (c == '&') {
+        sb.append("&amp;");
+        amp = nextIndex(text, '&', at + 1, to);
+      } else if (c == '<') {
+        sb.append("&lt;");
+        lt = nextIndex(text, '<', at + 1, to);
+      } else {
+        sb.append("&gt;");
+        gt = nextIndex(text, '>', at + 1, to);
+      }
+      run = at + 1;
+    }
+    sb.append(text, run, to);
+  }
+
+  private static int nextIndex(String text, char c, int from, int to) {
+    int i = text.indexOf(c, from, to);
+    return i < 0 ? to : i;
   }
 }
@@ -20,6 +20,12 @@ Feature: Authentication endpoint
       | application/json                  |
       | application/x-www-form-urlencoded |
 
+  Scenario: Authentication responds within the time limit
+    Given I have username <valid> and password <valid>
+    When I POST payload to "/auth"
+    Then the response status code should be 200
+    And the response time should be below 10000 ms
+
   Scenario: Sending valid payload twice produces two distinct tokens
     Given I have username <valid> and password <valid>
     When I POST payload to "/auth"
@@ -0,0 +1,6 @@
+@auth @fuzz
+Feature: Authentication endpoint withstands fuzzed input
+
+  Scenario: Authentication never breaks on fuzzed credentials
+    When I fuzz POST "/auth" with 200 cases
+    Then no fuzz case should fail
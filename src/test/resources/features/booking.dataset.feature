@@ -0,0 +1,12 @@
+@booking @stable @dataset
+Feature: Create bookings from external datasets
+
+  Scenario Outline: Create a booking for every row of <dataset> (<content-type>)
+    Given the request Content-Type is set to "<content-type>"
+    When I POST each row of "<dataset>" to "/booking" with concurrency 4 expecting status 200
+    Then no dataset row should fail
+
+    Examples:
+      | dataset        | content-type     |
+      | bookings.csv   | application/json |
+      | bookings.jsonl | application/json |
@@ -0,0 +1,16 @@
+@booking @stable @encoding
+Feature: Request body encoding
+
+  # Bodies are rendered from cached templates when possible; they must not differ from a full
+  # serialization of the same payload by a single byte
+  Scenario Outline: Templated request bodies match the full serialization (<content-type>)
+    Given the request Content-Type is set to "<content-type>"
+    Then 20000 random booking payloads should encode to the same bytes with and without templates
+
+    Examples:
+      | content-type                                          |
+      | application/json                                      |
+      | text/xml                                              |
+      | text/xml; charset=ISO-8859-1                          |
+      | application/x-www-form-urlencoded                     |
+      | application/x-www-form-urlencoded; charset=ISO-8859-1 |
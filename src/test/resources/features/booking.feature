@@ -34,4 +34,12 @@ Feature: Create booking
   Scenario: HTTP Method Check: OPTIONS should return POST allowed
     When I OPTIONS raw to "/booking"
     Then the response status code should be 200
-    And the response header "Allow" should contain "POST"
\ No newline at end of file
+    And the response header "Allow" should contain "POST"
+
+  Scenario: Delete booking with a cached token
+    Given I have a valid booking payload
+    When I POST payload to "/booking"
+    Then I store the booking id as 'id'
+    Given I am authenticated as <valid>
+    When I DELETE raw to "/booking/{id}"
+    Then the response status code should be 201
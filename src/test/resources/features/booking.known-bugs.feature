@@ -41,6 +41,13 @@ Feature: Known Bugs of Create booking
       | bookingdates    |
       | additionalneeds |
 
+  # BUG: dataset rows missing a required field should cause 400 (Bad Request),
+  # but actual response if 500 (Internal Server Error)
+  Scenario: Create bookings from dataset rows with missing fields
+    Given the request Content-Type is set to "application/json"
+    When I POST each row of "bookings.missing-fields.csv" to "/booking" with concurrency 4 expecting status 400
+    Then no dataset row should fail
+
   # BUG: invalid dates in payload should cause 400 (Bad Request),
   # but actual response if 500 (Internal Server Error)
   Scenario Outline: Create booking with invalid date: <description>
@@ -84,3 +91,9 @@ Feature: Known Bugs of Create booking
       | totalprice   | "one hundred" | Non-numeric string instead of number                    |
       | depositpaid  | "true"        | String instead of boolean                               |
       | bookingdates | "2024-01-01"  | String instead of object {"checkin":...,"checkout":...} |
+
+  # BUG: incomplete or invalid payloads cause 500 (Internal Server Error) instead of 400
+  @fuzz
+  Scenario: Create booking never breaks on fuzzed payloads
+    When I fuzz POST "/booking" with 300 cases
+    Then no fuzz case should fail
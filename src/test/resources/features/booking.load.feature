@@ -0,0 +1,28 @@
+@booking @load
+Feature: Create booking under concurrent load
+
+  Scenario Outline: Create bookings concurrently (<content-type>)
+    Given I have a valid booking payload
+    And the request Content-Type is set to "<content-type>"
+    When I POST payload to "/booking" 50 times with concurrency 10
+    Then the load test error rate should be below 1%
+    And at least 99% of the load test responses should have status 200
+
+    Examples:
+      | content-type     |
+      | application/json |
+      | text/xml         |
+
+  Scenario: Create bookings at a constant arrival rate
+    Given I have a valid booking payload
+    And the request Content-Type is set to "application/json"
+    When I POST payload to "/booking" at 50 requests per second for 2 seconds
+    Then the load test error rate should be below 1%
+
+  @stub
+  Scenario: Create bookings at a constant arrival rate within a latency limit
+    Given I have a valid booking payload
+    And the request Content-Type is set to "application/json"
+    When I POST payload to "/booking" at 50 requests per second for 2 seconds
+    Then the load test error rate should be below 1%
+    And the p99 latency should be below 2000 ms
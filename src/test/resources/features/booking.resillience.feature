@@ -17,6 +17,21 @@ Feature: Authentication endpoint is resilient
       | bookingdates    |
       | additionalneeds |
 
+  # Multi-megabyte uploads are only sent to the stub, never to a shared host
+  @stub
+  Scenario Outline: Payload Too Large for a <Size> firstname (<content-type>)
+    Given I have a valid booking payload
+    And the request Content-Type is set to "<content-type>"
+    And the request body contains a <Size> string for the firstname field
+    When I POST payload to "/booking"
+    Then the response status code should be 413
+    And the response body should be plain text "Payload Too Large"
+
+    Examples:
+      | Size | content-type                      |
+      | 5MB  | application/json                  |
+      | 5MB  | application/x-www-form-urlencoded |
+
   Scenario Outline: Booking creation fails: Malicious or boundary strings (<Description>)
     Given the request body is set to:
     """